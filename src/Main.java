@@ -6,6 +6,6 @@ public class Main {
 
     public static void main(String[] args) throws IOException {
         System.out.println("Поехали!");
-        HttpTaskServer.main(null);
+        HttpTaskServer.main(args);
     }
 }
\ No newline at end of file
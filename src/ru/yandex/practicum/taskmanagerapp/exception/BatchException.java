@@ -0,0 +1,20 @@
+package ru.yandex.practicum.taskmanagerapp.exception;
+
+public class BatchException extends ManagerException {
+    private final int operationIndex;
+
+    public BatchException(int operationIndex, RuntimeException cause) {
+        super("Batch operation #" + operationIndex + " failed");
+        this.operationIndex = operationIndex;
+        initCause(cause);
+    }
+
+    public int getOperationIndex() {
+        return operationIndex;
+    }
+
+    @Override
+    public synchronized RuntimeException getCause() {
+        return (RuntimeException) super.getCause();
+    }
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.taskmanagerapp.exception;
+
+public class VersionConflictException extends ManagerException {
+    public VersionConflictException() {
+        super();
+    }
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
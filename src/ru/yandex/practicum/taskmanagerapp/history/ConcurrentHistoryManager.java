@@ -0,0 +1,147 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread-safe history manager which keeps views off the lock.
+// A view is recorded into one of striped lock-free ring buffers (stripe is chosen by thread),
+// buffers are drained into the ordered history under the lock when a buffer becomes half full,
+// on getHistory and remove calls or on explicit drain() call. A drain takes every view offered before it,
+// so a task removed after its last view is not restored. Views are numbered by a global sequence and
+// every drain applies them in that order; a view numbered before a drain but offered after it is applied
+// by the next drain, after newer views, so recency order is exact only for views drained together.
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int BUFFER_SIZE = 256;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private record View(Task task, long sequence) {
+    }
+
+    // Multiple producers, single consumer (the thread holding the lock)
+    private static class ViewBuffer {
+        private final AtomicReferenceArray<View> views = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter = 0;
+
+        // returns number of pending views or -1 if the buffer is full
+        int offer(View view) {
+            long tail;
+            do {
+                tail = writeCounter.get();
+                if (tail - readCounter >= BUFFER_SIZE) {
+                    return -1;
+                }
+            } while (!writeCounter.compareAndSet(tail, tail + 1));
+            views.lazySet((int) tail & (BUFFER_SIZE - 1), view);
+            return (int) (tail + 1 - readCounter);
+        }
+
+        // Takes all views offered so far; a reserved slot is written right after the reservation,
+        // so its writer is waited for instead of leaving the views after it in the buffer
+        void drainTo(List<View> drainedViews) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) head & (BUFFER_SIZE - 1);
+                View view;
+                while ((view = views.get(index)) == null) {
+                    Thread.onSpinWait();
+                }
+                views.lazySet(index, null);
+                drainedViews.add(view);
+            }
+            readCounter = head;
+        }
+    }
+
+    private final HistoryManager historyManager;
+    private final ViewBuffer[] buffers;
+    private final AtomicLong viewSequence = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<View> drainedViews = new ArrayList<>();
+
+    public ConcurrentHistoryManager(HistoryManager historyManager) {
+        this(historyManager, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentHistoryManager(HistoryManager historyManager, int stripes) {
+        this.historyManager = historyManager;
+        int bufferCount = Integer.highestOneBit(Math.max(1, stripes) * 2 - 1);
+        buffers = new ViewBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            buffers[i] = new ViewBuffer();
+        }
+    }
+
+    private ViewBuffer getBuffer() {
+        long threadId = Thread.currentThread().threadId();
+        return buffers[(int) (threadId ^ (threadId >>> 16)) & (buffers.length - 1)];
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        View view = new View(task, viewSequence.getAndIncrement());
+        ViewBuffer buffer = getBuffer();
+        int pendingViews;
+        while ((pendingViews = buffer.offer(view)) < 0) {
+            drain();    // buffer is full, wait for the lock
+        }
+        if (pendingViews >= DRAIN_THRESHOLD && lock.tryLock()) {
+            try {
+                drainBuffers();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.lock();
+        try {
+            drainBuffers();     // earlier views must not restore the removed task
+            historyManager.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        lock.lock();
+        try {
+            drainBuffers();
+            return historyManager.getHistory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Forces recorded views into the history
+    public void drain() {
+        lock.lock();
+        try {
+            drainBuffers();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainBuffers() {
+        for (ViewBuffer buffer : buffers) {
+            buffer.drainTo(drainedViews);
+        }
+        drainedViews.sort(Comparator.comparingLong(View::sequence));
+        drainedViews.forEach(view -> historyManager.add(view.task()));
+        drainedViews.clear();
+    }
+}
@@ -5,95 +5,110 @@ import ru.yandex.practicum.taskmanagerapp.task.Task;
 import java.util.*;
 
 public class InMemoryHistoryManager implements HistoryManager {
+    public static final int UNBOUNDED = 0;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NIL = -1;
+
+    // Doubly linked list stored in arrays: nodes are slots, links are slot indices.
+    // Nodes are preallocated, so recording a view allocates nothing
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+
+    private int head = NIL;
+    private int tail = NIL;
+    private int freeSlots = NIL;    // free slots are linked through next[]
+    private int usedSlots = 0;      // slots [usedSlots, tasks.length) have never been used
+    private int listSize = 0;
 
-    private class Node {
-        private final Task task;
-        private Node prev;
-        private Node next;
+    private final int maxSize;
+    private final IntSlotMap slotById;
 
-        public Node(Task task, Node prev, Node next) {
-            this.task = task;
-            this.prev = prev;       // Согласно тз список
-            this.next = next;       // должен быть двухсвязанным
-        }
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (o == null || getClass() != o.getClass()) return false;
-            Node node = (Node) o;
-            return Objects.equals(task, node.task) && Objects.equals(prev, node.prev) && Objects.equals(next, node.next);
-        }
+    // History keeps at most maxSize records, the least recently viewed one is evicted
+    public InMemoryHistoryManager(int maxSize) {
+        this(maxSize, (maxSize == UNBOUNDED) ? INITIAL_CAPACITY : maxSize);
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(task, prev, next);
+    // Arrays are allocated for initialCapacity records and grow up to maxSize
+    public InMemoryHistoryManager(int maxSize, int initialCapacity) {
+        if (maxSize < 0 || initialCapacity < 1) {
+            throw new IllegalArgumentException("History size must not be negative, initial capacity must be positive");
         }
+        this.maxSize = maxSize;
+        int capacity = (maxSize == UNBOUNDED) ? initialCapacity : Math.min(maxSize, initialCapacity);
+        tasks = new Task[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        slotById = new IntSlotMap(capacity);
+    }
 
-        public Node getPrev() {
-            return prev;
-        }
+    public int getMaxSize() {
+        return maxSize;
+    }
 
-        public Node getNext() {
-            return next;
-        }
+    public int size() {
+        return listSize;
+    }
 
-        public void setPrev(Node prev) {
-            this.prev = prev;
+    private int allocateSlot() {
+        if (freeSlots != NIL) {
+            int slot = freeSlots;
+            freeSlots = next[slot];
+            return slot;
         }
-
-        public void setNext(Node next) {
-            this.next = next;
+        if (usedSlots == tasks.length) {    // bounded history gets here only before reaching maxSize
+            int capacity = (maxSize == UNBOUNDED) ? tasks.length * 2 : Math.min(tasks.length * 2, maxSize);
+            tasks = Arrays.copyOf(tasks, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
         }
+        return usedSlots++;
     }
 
-    private Node head = null;
-    private Node tail = null;
-    private int listSize = 0;
-
-    private final Map<Integer, Node> helperMap = new HashMap<>();
-
     private void linkLast(Task task) {
-        listSize++;
-        if (head == null) {
-            head = new Node(task, null, null);
-            tail = head;
-            return;
+        int slot = allocateSlot();
+        tasks[slot] = task;
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
         }
-        tail.setNext(new Node(task, tail, null));
-        tail = tail.getNext();
+        tail = slot;
+        listSize++;
+        slotById.put(task.getId(), slot);
     }
 
-    private void removeNode(Node node) {
-        if (node == null) {
-            return;
+    private void removeSlot(int slot) {
+        if (prev[slot] == NIL) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
         }
-
-        listSize--;
-        if (node.equals(head)) {
-            head = node.getNext();
-            if (head == null) { //удаление последнего узла
-                tail = null;
-            }
+        if (next[slot] == NIL) {
+            tail = prev[slot];
         } else {
-            node.getPrev().setNext(node.getNext());
-            if (node.equals(tail)) {
-                tail = node.prev;
-            } else {
-                node.getNext().setPrev(node.getPrev());
-            }
+            prev[next[slot]] = prev[slot];
         }
+
+        tasks[slot] = null;
+        next[slot] = freeSlots;
+        freeSlots = slot;
+        listSize--;
     }
 
     private List<Task> getTasks() {
-        List<Task> tasks = new ArrayList<>(listSize);
-
-        Node node = head;
-        while (node != null) {
-            tasks.add(node.task);
-            node = node.next;
+        Task[] history = new Task[listSize];
+        int i = 0;
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            history[i++] = tasks[slot];
         }
-
-        return tasks;
+        return Arrays.asList(history);
     }
 
     @Override
@@ -102,13 +117,19 @@ public class InMemoryHistoryManager implements HistoryManager {
             return;
         }
         remove(task.getId());
+        if (maxSize != UNBOUNDED && listSize == maxSize) {
+            slotById.remove(tasks[head].getId());
+            removeSlot(head);
+        }
         linkLast(task);
-        helperMap.put(task.getId(), tail);
     }
 
     @Override
     public void remove(int id) {
-        removeNode(helperMap.remove(id));
+        int slot = slotById.remove(id);
+        if (slot != IntSlotMap.NO_VALUE) {
+            removeSlot(slot);
+        }
     }
 
     @Override
@@ -116,4 +137,3 @@ public class InMemoryHistoryManager implements HistoryManager {
         return getTasks();
     }
 }
-
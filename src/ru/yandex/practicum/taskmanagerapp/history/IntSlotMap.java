@@ -0,0 +1,101 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import java.util.Arrays;
+
+// Map of int keys to non-negative int values without boxing.
+// Open addressing with linear probing, removal shifts the following entries back
+class IntSlotMap {
+    static final int NO_VALUE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+
+    IntSlotMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        mask = capacity - 1;
+    }
+
+    private int indexOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    int get(int key) {
+        for (int i = indexOf(key); values[i] != NO_VALUE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return NO_VALUE;
+    }
+
+    void put(int key, int value) {
+        int i = indexOf(key);
+        while (values[i] != NO_VALUE) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > values.length) {
+            rehash();
+        }
+    }
+
+    int remove(int key) {
+        int i = indexOf(key);
+        while (values[i] != NO_VALUE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        int value = values[i];
+        if (value == NO_VALUE) {
+            return NO_VALUE;
+        }
+        size--;
+        // shift back entries which would become unreachable
+        int gap = i;
+        for (int j = (gap + 1) & mask; values[j] != NO_VALUE; j = (j + 1) & mask) {
+            int home = indexOf(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = NO_VALUE;
+        return value;
+    }
+
+    void clear() {
+        Arrays.fill(values, NO_VALUE);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(values.length * 2);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// History manager keeping a separate history for every client session.
+// The session of the current thread is set by setCurrentSession (HTTP server does it for every request),
+// threads without a session use the default one. The binding belongs to the instance, so managers of
+// different servers do not share it.
+// Sessions are kept in LRU order: sessions idle for longer than idleTimeout are evicted, and the least
+// recently used sessions are evicted while the total number of records exceeds maxTotalRecords.
+public class SessionHistoryManager implements HistoryManager {
+    public static final String DEFAULT_SESSION = "";
+    private static final int SESSION_INITIAL_CAPACITY = 16;
+
+    private final ThreadLocal<String> currentSession = new ThreadLocal<>();
+
+    private static class Session {
+        private final InMemoryHistoryManager history;
+        private long lastAccessTime;
+
+        Session(int maxSize, long lastAccessTime) {
+            this.history = new InMemoryHistoryManager(maxSize, Math.min(maxSize, SESSION_INITIAL_CAPACITY));
+            this.lastAccessTime = lastAccessTime;
+        }
+    }
+
+    private final Map<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSessionSize;
+    private final long maxTotalRecords;
+    private final long idleTimeoutMillis;
+    private final Clock clock;
+    private long totalRecords = 0;
+
+    public SessionHistoryManager(int maxSessionSize, long maxTotalRecords, Duration idleTimeout) {
+        this(maxSessionSize, maxTotalRecords, idleTimeout, Clock.systemUTC());
+    }
+
+    SessionHistoryManager(int maxSessionSize, long maxTotalRecords, Duration idleTimeout, Clock clock) {
+        if (maxSessionSize < 1 || maxTotalRecords < maxSessionSize) {
+            throw new IllegalArgumentException("Session history size must be positive and fit total size");
+        }
+        this.maxSessionSize = maxSessionSize;
+        this.maxTotalRecords = maxTotalRecords;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = clock;
+    }
+
+    public void setCurrentSession(String sessionId) {
+        currentSession.set(sessionId);
+    }
+
+    public void clearCurrentSession() {
+        currentSession.remove();
+    }
+
+    public String getCurrentSession() {
+        String sessionId = currentSession.get();
+        return (sessionId == null) ? DEFAULT_SESSION : sessionId;
+    }
+
+    // Removes idle sessions, starting from the least recently used one
+    private void evictIdleSessions(long now) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            Session session = iterator.next();
+            if (now - session.lastAccessTime < idleTimeoutMillis) {
+                return;
+            }
+            totalRecords -= session.history.size();
+            iterator.remove();
+        }
+    }
+
+    private void evictOverBudget() {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (totalRecords > maxTotalRecords && iterator.hasNext()) {
+            totalRecords -= iterator.next().history.size();
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        long now = clock.millis();
+        evictIdleSessions(now);
+        Session session = sessions.computeIfAbsent(getCurrentSession(), id -> new Session(maxSessionSize, now));
+        session.lastAccessTime = now;
+
+        int oldSize = session.history.size();
+        session.history.add(task);
+        totalRecords += session.history.size() - oldSize;
+        evictOverBudget();
+    }
+
+    // Task is removed from every session
+    @Override
+    public synchronized void remove(int id) {
+        for (Session session : sessions.values()) {
+            int oldSize = session.history.size();
+            session.history.remove(id);
+            totalRecords += session.history.size() - oldSize;
+        }
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        long now = clock.millis();
+        evictIdleSessions(now);
+        Session session = sessions.get(getCurrentSession());
+        if (session == null) {
+            return List.of();
+        }
+        session.lastAccessTime = now;
+        return session.history.getHistory();
+    }
+
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    public synchronized long getTotalRecords() {
+        return totalRecords;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.util.List;
+
+// Thread-safe wrapper for history managers shared between threads
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager historyManager;
+
+    public SynchronizedHistoryManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        historyManager.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        historyManager.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+}
@@ -1,20 +1,267 @@
 package ru.yandex.practicum.taskmanagerapp.httpserver;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.practicum.taskmanagerapp.exception.NotFoundException;
+import ru.yandex.practicum.taskmanagerapp.exception.VersionConflictException;
 
-import java.io.IOException;
+import java.io.*;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 abstract class BaseHttpHandler implements HttpHandler {
+    private static final int WRITE_BUFFER_SIZE = 8192;
+    // Shorter bodies are not compressed: gzip header and trailer take 18 bytes, and short JSON hardly shrinks
+    static final int GZIP_THRESHOLD = 1024;
+    // Tag suffixes of the representations of one version: JSON, gzip JSON, binary and gzip binary
+    private static final List<String> ETAG_SUFFIXES = List.of("", "-gzip", "-bin", "-bin-gzip");
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=utf-8";
+    // Responses depend on the negotiated media type and encoding
+    private static final String VARY = "Accept, Accept-Encoding";
+    protected static final long ANY_VERSION = -1;
+
     protected void sendText(HttpExchange h, String text) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
-        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        sendBytes(h, text.getBytes(StandardCharsets.UTF_8), JSON_CONTENT_TYPE, false);
+    }
+
+    private void sendBytes(HttpExchange h, byte[] resp, String contentType, boolean isGzipped) throws IOException {
+        h.getResponseHeaders().add("Content-Type", contentType);
+        if (isGzipped) {
+            h.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
         h.sendResponseHeaders(200, resp.length);
         h.getResponseBody().write(resp);
         h.close();
     }
 
+    // Serializes value straight into the response body, so the response is never held in memory as a whole.
+    // Bodies longer than GZIP_THRESHOLD are sent with chunked encoding, compressed if the client accepts gzip.
+    // Items are projected on the fields requested by ?fields=, IllegalArgumentException is thrown for unknown fields.
+    // Items and lists of items are sent in binary encoding if the client asks for it and no projection is requested
+    protected void sendJson(HttpExchange h, Object value) throws IOException {
+        Optional<TaskProjection> projection = getProjection(h);
+        boolean isBinary = projection.isEmpty() && acceptsBinary(h) && TaskBinaryCodec.canEncode(value);
+        writeBody(value, isBinary, projection, new ResponseBodyStream(h, acceptsGzip(h),
+                isBinary ? TaskBinaryCodec.CONTENT_TYPE : JSON_CONTENT_TYPE));
+    }
+
+    // Sends the cached response if the cache has an entry for key with the same stamp, otherwise
+    // streams the value and keeps a copy of the serialized bytes for the cache.
+    // Projections and binary responses are cached under their own keys. A response to a binary request
+    // may still be JSON if the value has no binary encoding, the cached body tells which one it is
+    protected void sendCachedJson(HttpExchange h, ResponseCache cache, String key, long[] stamp,
+                                  Supplier<?> value) throws IOException {
+        Optional<TaskProjection> projection = getProjection(h);
+        boolean acceptsBinary = projection.isEmpty() && acceptsBinary(h);
+        if (projection.isPresent()) {
+            key += "#fields=" + projection.get().getKey();
+        } else if (acceptsBinary) {
+            key += "#binary";
+        }
+        boolean acceptsGzip = acceptsGzip(h);
+        byte[] body = cache.get(key, stamp);
+        if (body != null) {
+            h.getResponseHeaders().add("Vary", VARY);
+            String contentType = TaskBinaryCodec.isEncoded(body) ? TaskBinaryCodec.CONTENT_TYPE : JSON_CONTENT_TYPE;
+            if (acceptsGzip && body.length >= GZIP_THRESHOLD) {
+                sendBytes(h, cache.getGzipped(key, body), contentType, true);
+            } else {
+                sendBytes(h, body, contentType, false);
+            }
+            return;
+        }
+        Object responseValue = value.get();
+        boolean isBinary = acceptsBinary && TaskBinaryCodec.canEncode(responseValue);
+        CopyingOutputStream output = new CopyingOutputStream(new ResponseBodyStream(h, acceptsGzip,
+                isBinary ? TaskBinaryCodec.CONTENT_TYPE : JSON_CONTENT_TYPE), cache.getMaxEntrySize());
+        writeBody(responseValue, isBinary, projection, output);
+        if (!output.isOverflowed()) {
+            cache.put(key, stamp, output.getCopy());
+        }
+    }
+
+    private static void writeBody(Object value, boolean isBinary, Optional<TaskProjection> projection,
+                                  OutputStream output) throws IOException {
+        if (isBinary) {
+            OutputStream bufferedOutput = new BufferedOutputStream(output, WRITE_BUFFER_SIZE);
+            TaskBinaryCodec.write(value, bufferedOutput);
+            bufferedOutput.close();
+        } else {
+            writeJson(value, projection.map(TaskProjection::getGson).orElseGet(HttpTaskServer::getGson), output);
+        }
+    }
+
+    private static void writeJson(Object value, Gson gson, OutputStream output) throws IOException {
+        JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE));
+        try {
+            if (value == null) {
+                writer.nullValue();
+            } else {
+                gson.toJson(value, value.getClass(), writer);
+            }
+        } catch (JsonIOException e) {
+            // the writer is not closed, so a short response is not sent and the handler may answer 500,
+            // the connection of a streamed response is dropped
+            throw new IOException(e);
+        }
+        writer.close();
+    }
+
+    // Checks Accept-Encoding header for gzip (or any encoding) with non-zero quality
+    protected static boolean acceptsGzip(HttpExchange h) {
+        Map<String, Double> qualities = getQualities(h, "Accept-Encoding");
+        return qualities.getOrDefault("gzip", 0.0) > 0 || qualities.getOrDefault("*", 0.0) > 0;
+    }
+
+    // Checks Accept header for the binary media type listed explicitly with quality not less than JSON one
+    protected static boolean acceptsBinary(HttpExchange h) {
+        Map<String, Double> qualities = getQualities(h, "Accept");
+        double binaryQuality = qualities.getOrDefault(TaskBinaryCodec.CONTENT_TYPE, 0.0);
+        return binaryQuality > 0 && binaryQuality >= qualities.getOrDefault("application/json", 0.0);
+    }
+
+    protected static boolean hasBinaryBody(HttpExchange h) {
+        String contentType = h.getRequestHeaders().getFirst("Content-Type");
+        return contentType != null
+                && contentType.split(";")[0].trim().equalsIgnoreCase(TaskBinaryCodec.CONTENT_TYPE);
+    }
+
+    // Qualities of the values listed in a header like Accept-Encoding: "gzip;q=0.8, *;q=0.1".
+    // Names are lower-cased, a value without q has quality 1, malformed q is taken as 0
+    private static Map<String, Double> getQualities(HttpExchange h, String header) {
+        Map<String, Double> qualities = new HashMap<>();
+        List<String> values = h.getRequestHeaders().get(header);
+        if (values == null) {
+            return qualities;
+        }
+        for (String value : values) {
+            for (String element : value.split(",")) {
+                String[] parameters = element.split(";");
+                double quality = 1;
+                for (int i = 1; i < parameters.length; i++) {
+                    String parameter = parameters[i].trim();
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            quality = Double.parseDouble(parameter.substring(2));
+                        } catch (NumberFormatException e) {
+                            quality = 0;
+                        }
+                    }
+                }
+                qualities.merge(parameters[0].trim().toLowerCase(), quality, Math::max);
+            }
+        }
+        return qualities;
+    }
+
+    private static Optional<TaskProjection> getProjection(HttpExchange h) {
+        String fields = getQueryParameters(h).get("fields");
+        return (fields == null) ? Optional.empty() : Optional.of(TaskProjection.parse(fields));
+    }
+
+    // Parameters of the request query string, the first value of a repeated parameter wins.
+    // Exchange attributes of the JDK server are shared by the context, so the parameters are not kept there
+    protected static Map<String, String> getQueryParameters(HttpExchange h) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = h.getRequestURI().getRawQuery();
+        int start = 0;
+        while (query != null && start < query.length()) {
+            int end = query.indexOf('&', start);
+            end = (end < 0) ? query.length() : end;
+            int separator = query.indexOf('=', start);
+            separator = (separator < 0 || separator > end) ? end : separator;
+            if (end > start) {
+                parameters.putIfAbsent(decode(query, start, separator),
+                        (separator < end) ? decode(query, separator + 1, end) : "");
+            }
+            start = end + 1;
+        }
+        return parameters;
+    }
+
+    private static String decode(String query, int start, int end) {
+        String value = query.substring(start, end);
+        boolean isEncoded = value.indexOf('%') >= 0 || value.indexOf('+') >= 0;
+        return isEncoded ? URLDecoder.decode(value, StandardCharsets.UTF_8) : value;
+    }
+
+    // Strong tag of the representation negotiated by the request headers. Bodies of one version differ in
+    // media type and encoding, so each of them gets its own tag; a short body is sent uncompressed even
+    // under a gzip tag, but every request with the same headers gets the same bytes for the tag
+    protected static String toETag(long version, HttpExchange h) {
+        boolean isBinary = acceptsBinary(h) && !getQueryParameters(h).containsKey("fields");
+        return toETag(version, ETAG_SUFFIXES.get((isBinary ? 2 : 0) + (acceptsGzip(h) ? 1 : 0)));
+    }
+
+    private static String toETag(long version, String suffix) {
+        return "\"" + version + suffix + "\"";
+    }
+
+    // Answers 304 Not Modified if If-None-Match header of the request matches eTag,
+    // otherwise adds eTag to the response headers and returns false
+    protected boolean sendNotModified(HttpExchange h, String eTag) throws IOException {
+        h.getResponseHeaders().add("ETag", eTag);
+        String ifNoneMatch = h.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matchesETag(ifNoneMatch, eTag)) {
+            return false;
+        }
+        h.sendResponseHeaders(304, -1);
+        h.close();
+        return true;
+    }
+
+    // Version required by If-Match header of the request: ANY_VERSION if there is no header or it is "*",
+    // otherwise the current version if one of the tags is a tag of any of its representations. Tags are compared
+    // strongly, so a weak tag never matches. Throws VersionConflictException if no tag matches or the item
+    // does not exist, as even "*" requires a current representation
+    protected static long getIfMatchVersion(HttpExchange h, LongSupplier currentVersion) {
+        String ifMatch = h.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch == null) {
+            return ANY_VERSION;
+        }
+        long version;
+        try {
+            version = currentVersion.getAsLong();
+        } catch (NotFoundException e) {
+            throw new VersionConflictException();
+        }
+        if (ifMatch.trim().equals("*")) {
+            return ANY_VERSION;
+        }
+        for (String tag : ifMatch.split(",")) {
+            for (String suffix : ETAG_SUFFIXES) {
+                if (tag.trim().equals(toETag(version, suffix))) {
+                    return version;
+                }
+            }
+        }
+        throw new VersionConflictException();
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {     // weak comparison
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected void sendNotFound(HttpExchange h) throws IOException {
         h.sendResponseHeaders(404, 0);
         h.close();
@@ -25,6 +272,11 @@ abstract class BaseHttpHandler implements HttpHandler {
         h.close();
     }
 
+    protected void sendPreconditionFailed(HttpExchange h) throws IOException {
+        h.sendResponseHeaders(412, 0);
+        h.close();
+    }
+
     protected void sendInternalError(HttpExchange h) throws IOException {
         h.sendResponseHeaders(500, 0);
         h.close();
@@ -39,5 +291,113 @@ abstract class BaseHttpHandler implements HttpHandler {
         h.sendResponseHeaders(200, 0);
         h.close();
     }
-}
 
+    // Passes bytes through and keeps a copy of them until the copy exceeds the limit
+    private static class CopyingOutputStream extends FilterOutputStream {
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CopyingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkLimit();
+            }
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
+            }
+        }
+
+        boolean isOverflowed() {
+            return copy == null;
+        }
+
+        byte[] getCopy() {
+            return copy.toByteArray();
+        }
+    }
+
+    // Response body which holds the first GZIP_THRESHOLD bytes back: if the body ends earlier, it is sent
+    // as is with known length, otherwise response headers are sent for chunked encoding and the body
+    // is streamed, gzip-compressed on the fly if the client accepts it
+    private static class ResponseBodyStream extends OutputStream {
+        private final HttpExchange h;
+        private final boolean acceptsGzip;
+        private final byte[] head = new byte[GZIP_THRESHOLD];
+        private int headSize = 0;
+        private OutputStream out;   // set when headers are sent
+
+        ResponseBodyStream(HttpExchange h, boolean acceptsGzip, String contentType) {
+            this.h = h;
+            this.acceptsGzip = acceptsGzip;
+            h.getResponseHeaders().add("Content-Type", contentType);
+            h.getResponseHeaders().add("Vary", VARY);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null) {
+                if (headSize + len < GZIP_THRESHOLD) {
+                    System.arraycopy(b, off, head, headSize, len);
+                    headSize += len;
+                    return;
+                }
+                startStreaming();
+            }
+            out.write(b, off, len);
+        }
+
+        private void startStreaming() throws IOException {
+            if (acceptsGzip) {
+                h.getResponseHeaders().add("Content-Encoding", "gzip");
+                h.sendResponseHeaders(200, 0);
+                out = new GZIPOutputStream(h.getResponseBody(), WRITE_BUFFER_SIZE);
+            } else {
+                h.sendResponseHeaders(200, 0);
+                out = h.getResponseBody();
+            }
+            out.write(head, 0, headSize);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out == null) {
+                h.sendResponseHeaders(200, headSize);
+                h.getResponseBody().write(head, 0, headSize);
+            } else {
+                out.close();
+            }
+            h.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.practicum.taskmanagerapp.exception.*;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskBatch;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// POST /batch[?atomic=true] with an array of operations: {"type": "ADD_TASK", "item": {...}} for adding
+// and updating, {"type": "REMOVE_TASK", "id": 101} for removal. Epic id of an added subtask may refer
+// to an epic added by the same request: -1 is the epic of the 1st operation, -2 of the 2nd one and so on.
+// Responds with a status and an item id for every operation. Atomic request is applied all-or-nothing:
+// if an operation fails, the others get 424 Failed Dependency
+public class BatchHandler extends BaseHttpHandler {
+    private static final Router<Boolean> ROUTER = new Router<>(false).add("POST", "", true);
+
+    private static final int FAILED_DEPENDENCY = 424;
+
+    private final TaskManager taskManager;
+
+    private record OperationResult(int status, Integer id) {
+    }
+
+    public BatchHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!ROUTER.route(exchange).getRoute()) {
+            sendBadRequest(exchange);
+            return;
+        }
+
+        try {
+            TaskBatch batch = deserializeBatch(exchange);
+            boolean isAtomic = Boolean.parseBoolean(getQueryParameters(exchange).get("atomic"));
+            sendJson(exchange, isAtomic ? applyAtomically(batch) : applyEach(batch));
+        } catch (BadJsonException | IllegalArgumentException e) {
+            sendBadRequest(exchange);
+        } catch (Exception e) {
+            sendInternalError(exchange);
+        }
+    }
+
+    private List<OperationResult> applyAtomically(TaskBatch batch) {
+        List<OperationResult> results = new ArrayList<>(batch.size());
+        try {
+            taskManager.applyBatch(batch).forEach(id -> results.add(new OperationResult(200, id)));
+        } catch (BatchException e) {
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(new OperationResult(
+                        (i == e.getOperationIndex()) ? toStatus(e.getCause()) : FAILED_DEPENDENCY, null));
+            }
+        }
+        return results;
+    }
+
+    private List<OperationResult> applyEach(TaskBatch batch) {
+        return taskManager.applyEach(batch).stream()
+                .map(result -> result.isSuccess() ? new OperationResult(200, result.id())
+                        : new OperationResult(toStatus(result.error()), null))
+                .toList();
+    }
+
+    private static int toStatus(RuntimeException error) {
+        if (error instanceof NotFoundException) {
+            return 404;
+        } else if (error instanceof TimeConflictException || error instanceof InconsistentDataException) {
+            return 406;
+        } else if (error instanceof NullItemException || error instanceof BadJsonException) {
+            return 400;
+        }
+        return 500;
+    }
+
+    private static TaskBatch deserializeBatch(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Gson gson = HttpTaskServer.getGson();
+        TaskBatch batch = new TaskBatch();
+        try {
+            for (JsonElement element : JsonParser.parseString(body).getAsJsonArray()) {
+                JsonObject operation = element.getAsJsonObject();
+                JsonElement item = operation.get("item");
+                int id = operation.has("id") ? operation.get("id").getAsInt() : Task.NULL_ID;
+                switch (TaskBatch.OperationType.valueOf(operation.get("type").getAsString())) {
+                    case ADD_TASK -> batch.addTask(gson.fromJson(item, Task.class));
+                    case ADD_EPIC -> batch.addEpic(gson.fromJson(item, Epic.class));
+                    case ADD_SUBTASK -> batch.addSubtask(gson.fromJson(item, Subtask.class));
+                    case UPDATE_TASK -> batch.updateTask(gson.fromJson(item, Task.class));
+                    case UPDATE_EPIC -> batch.updateEpic(gson.fromJson(item, Epic.class));
+                    case UPDATE_SUBTASK -> batch.updateSubtask(gson.fromJson(item, Subtask.class));
+                    case REMOVE_TASK -> batch.removeTask(id);
+                    case REMOVE_EPIC -> batch.removeEpic(id);
+                    case REMOVE_SUBTASK -> batch.removeSubtask(id);
+                }
+            }
+        } catch (Exception e) {
+            throw new BadJsonException();
+        }
+        return batch;
+    }
+}
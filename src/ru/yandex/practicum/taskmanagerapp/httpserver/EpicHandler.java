@@ -1,37 +1,90 @@
 package ru.yandex.practicum.taskmanagerapp.httpserver;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import ru.yandex.practicum.taskmanagerapp.exception.BadJsonException;
 import ru.yandex.practicum.taskmanagerapp.exception.InconsistentDataException;
 import ru.yandex.practicum.taskmanagerapp.exception.NotFoundException;
 import ru.yandex.practicum.taskmanagerapp.exception.TimeConflictException;
+import ru.yandex.practicum.taskmanagerapp.exception.VersionConflictException;
 import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
 import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+// Besides the common item endpoints serves GET /epics/{id}/subtasks.
+// GET /epics and /epics/{id} with ?expand=subtasks send every epic as {"epic": {...}, "subtasks": [...]}.
+// Views of subtasks sent with their epic are recorded in history like the epic view, unless ?recordViews=false;
+// lists record no views as usual. Any subtask change touches its epic, so the epic version stamps the subtasks too
 public class EpicHandler extends ItemHandler {
-    private TaskManager taskManager;
+    private static final String EXPAND_SUBTASKS = "subtasks";
 
-    public EpicHandler(TaskManager taskManager) {
+    private final TaskManager taskManager;
+    private final ResponseCache responseCache;
+
+    private record EpicWithSubtasks(Epic epic, List<Subtask> subtasks) {
+    }
+
+    public EpicHandler(TaskManager taskManager, ResponseCache responseCache) {
         this.taskManager = taskManager;
+        this.responseCache = responseCache;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        Endpoint endpoint = getEndpoint(exchange);
-        Optional<Integer> optItemId = getItemId(exchange);
-        Gson gson = HttpTaskServer.getGson();
-
+        Router.Match<Endpoint> route = getRoute(exchange);
         try {
-            switch (endpoint) {
+            switch (route.getRoute()) {
                 case GET_ITEM -> {
-                    sendText(exchange, gson.toJson(taskManager.getEpic(optItemId.get())));
+                    boolean isExpanded = isExpanded(exchange);
+                    boolean recordViews = isRecordingViews(exchange);
+                    long version = taskManager.getItemVersion(route.getInt("id"));
+                    Epic epic = taskManager.getEpic(route.getInt("id"));     // view is recorded anyway
+                    List<Subtask> subtasks = isExpanded
+                            ? taskManager.getEpicSubtasks(epic.getId(), recordViews) : null;
+                    if (sendNotModified(exchange, toETag(version, exchange))) {
+                        return;
+                    }
+                    if (isExpanded) {
+                        sendCachedJson(exchange, responseCache, "/epics/" + epic.getId() + "?expand=subtasks",
+                                new long[]{version}, () -> new EpicWithSubtasks(epic, subtasks));
+                    } else {
+                        sendCachedJson(exchange, responseCache, "/epics/" + epic.getId(),
+                                new long[]{version}, () -> epic);
+                    }
+                }
+                case GET_SUBITEMS -> {
+                    boolean recordViews = isRecordingViews(exchange);
+                    long version = taskManager.getItemVersion(route.getInt("id"));
+                    List<Subtask> subtasks = taskManager.getEpicSubtasks(route.getInt("id"), recordViews);
+                    if (!sendNotModified(exchange, toETag(version, exchange))) {
+                        sendCachedJson(exchange, responseCache, "/epics/" + route.getInt("id") + "/subtasks",
+                                new long[]{version}, () -> subtasks);
+                    }
                 }
                 case GET_ALL_ITEMS -> {
-                    sendText(exchange, gson.toJson(taskManager.getEpicList()));
+                    boolean isExpanded = isExpanded(exchange);
+                    long version = taskManager.getVersion(TaskType.EPIC);
+                    Optional<PageRequest> pageRequest = getPageRequest(exchange);
+                    if (sendNotModified(exchange, toETag(version, exchange))) {
+                        return;
+                    }
+                    if (pageRequest.isPresent()) {
+                        PageRequest request = pageRequest.get();
+                        sendPage(exchange, responseCache, version,
+                                () -> taskManager.getEpics(request.query(), request.afterId(), request.limit()),
+                                isExpanded ? this::expand : epics -> epics);
+                    } else if (isExpanded) {
+                        sendCachedJson(exchange, responseCache, "/epics?expand=subtasks", new long[]{version},
+                                () -> expand(taskManager.getEpicList()));
+                    } else {
+                        sendCachedJson(exchange, responseCache, "/epics", new long[]{version},
+                                taskManager::getEpicList);
+                    }
                 }
                 case ADD_ITEM -> {
                     Epic epic = deserializeItem(exchange, Epic.class);
@@ -39,16 +92,29 @@ public class EpicHandler extends ItemHandler {
                 }
                 case UPDATE_ITEM -> {
                     Epic epic = deserializeItem(exchange, Epic.class);
-                    if (epic.getId() != 0 && epic.getId() != optItemId.get()) {
+                    if (epic.getId() != 0 && epic.getId() != route.getInt("id")) {
                         sendBadRequest(exchange);
                     } else {
-                        epic.setId(optItemId.get());
-                        taskManager.updateEpic(epic);
+                        int id = route.getInt("id");
+                        epic.setId(id);
+                        long version = getIfMatchVersion(exchange, () -> taskManager.getItemVersion(id));
+                        if (version == ANY_VERSION) {
+                            taskManager.updateEpic(epic);
+                        } else {
+                            exchange.getResponseHeaders().add("ETag",
+                                    toETag(taskManager.updateEpic(epic, version), exchange));
+                        }
                         sendOK(exchange);
                     }
                 }
                 case DELETE_ITEM -> {
-                    taskManager.removeEpic(optItemId.get());
+                    int id = route.getInt("id");
+                    long version = getIfMatchVersion(exchange, () -> taskManager.getItemVersion(id));
+                    if (version == ANY_VERSION) {
+                        taskManager.removeEpic(id);
+                    } else {
+                        taskManager.removeEpic(id, version);
+                    }
                     sendOK(exchange);
                 }
                 case UNKNOWN -> {
@@ -59,10 +125,43 @@ public class EpicHandler extends ItemHandler {
             sendNotFound(exchange);
         } catch (TimeConflictException | InconsistentDataException e) {
             sendHasOverlaps(exchange);
-        } catch (BadJsonException e) {
+        } catch (VersionConflictException e) {
+            sendPreconditionFailed(exchange);
+        } catch (BadJsonException | IllegalArgumentException e) {
             sendBadRequest(exchange);
         } catch (Exception e) {
             sendInternalError(exchange);
         }
     }
+
+    // Subtasks of an epic removed after the list has been got are not sent
+    private List<?> expand(List<Epic> epics) {
+        List<EpicWithSubtasks> expandedEpics = new ArrayList<>(epics.size());
+        for (Epic epic : epics) {
+            List<Subtask> subtasks;
+            try {
+                subtasks = taskManager.getEpicSubtasks(epic.getId(), false);
+            } catch (NotFoundException e) {
+                subtasks = List.of();
+            }
+            expandedEpics.add(new EpicWithSubtasks(epic, subtasks));
+        }
+        return expandedEpics;
+    }
+
+    private static boolean isExpanded(HttpExchange exchange) {
+        String expand = getQueryParameters(exchange).get("expand");
+        if (expand != null && !expand.equals(EXPAND_SUBTASKS)) {
+            throw new IllegalArgumentException("Only subtasks may be expanded");
+        }
+        return expand != null;
+    }
+
+    private static boolean isRecordingViews(HttpExchange exchange) {
+        String recordViews = getQueryParameters(exchange).getOrDefault("recordViews", "true");
+        if (!recordViews.equals("true") && !recordViews.equals("false")) {
+            throw new IllegalArgumentException("recordViews must be true or false");
+        }
+        return Boolean.parseBoolean(recordViews);
+    }
 }
\ No newline at end of file
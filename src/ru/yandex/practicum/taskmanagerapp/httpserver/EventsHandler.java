@@ -0,0 +1,122 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskEvent;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskEventBus;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Streams changes of items as Server-Sent Events, so clients follow them instead of polling the lists.
+// Every event is "id: <version>", "event: created|updated|deleted" and
+// "data: {"type":"TASK","id":<item id>,"item":{...}}", a deleted item has no "item".
+// A client reconnecting with Last-Event-ID gets the events it has missed; if they are not kept any more,
+// the stream starts with a "reset" event and the client has to reload the lists.
+// A client that falls behind by more than MAX_LAG events is disconnected.
+// Streams run on their own virtual threads, so they never hold the request executor threads
+// (a platform pool is not used up by idle streams). Each open stream costs a virtual thread,
+// a subscription and a connection; the number of streams is limited by those only
+public class EventsHandler extends BaseHttpHandler {
+    private static final Router<Boolean> ROUTER = new Router<>(false).add("GET", "", true);
+    static final int MAX_LAG = 1024;
+    static final long HEARTBEAT_MILLIS = 15_000;   // keeps proxies from closing an idle stream
+
+    private final TaskManager taskManager;
+    private final Set<TaskEventBus.Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory streamThreads = Thread.ofVirtual().name("events-", 0).factory();
+    private volatile boolean isClosed = false;
+
+    public EventsHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!ROUTER.route(exchange).getRoute()) {
+            sendBadRequest(exchange);
+            return;
+        }
+
+        TaskEventBus eventBus = taskManager.getEventBus();
+        TaskEventBus.Subscription subscription;
+        try {
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            subscription = (lastEventId == null) ? eventBus.subscribe(MAX_LAG)
+                    : eventBus.subscribe(Long.parseLong(lastEventId.trim()), MAX_LAG);
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange);
+            return;
+        }
+        subscriptions.add(subscription);
+        if (isClosed) {
+            subscription.close();
+        }
+
+        if (exchange instanceof NioHttpExchange nioExchange) {
+            nioExchange.detach();   // closed by the stream thread
+        }
+        streamThreads.newThread(() -> stream(exchange, subscription)).start();
+    }
+
+    // Stream thread: writes events until the subscription ends or the client goes
+    private void stream(HttpExchange exchange, TaskEventBus.Subscription subscription) {
+        try {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream;charset=utf-8");
+            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+                    StandardCharsets.UTF_8));
+            if (subscription.isReset()) {
+                writer.write("id: " + subscription.getPosition() + "\nevent: reset\ndata:\n\n");
+            } else {
+                writer.write(":\n\n");
+            }
+            writer.flush();
+            List<TaskEvent> events;
+            while ((events = subscription.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                if (events.isEmpty()) {
+                    writer.write(":\n\n");
+                }
+                for (TaskEvent event : events) {
+                    writeEvent(writer, event);
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // the client has gone
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+            subscriptions.remove(subscription);
+            exchange.close();
+        }
+    }
+
+    private static void writeEvent(Writer writer, TaskEvent event) throws IOException {
+        JsonObject data = new JsonObject();
+        data.addProperty("type", event.type().name());
+        data.addProperty("id", event.itemId());
+        if (event.item() != null) {
+            data.add("item", HttpTaskServer.getGson().toJsonTree(event.item(), event.item().getClass()));
+        }
+        writer.write("id: " + event.id() + "\nevent: " + event.kind().name().toLowerCase()
+                + "\ndata: " + data + "\n\n");
+    }
+
+    // Ends all streams, new ones end at once
+    public void close() {
+        isClosed = true;
+        subscriptions.forEach(TaskEventBus.Subscription::close);
+    }
+}
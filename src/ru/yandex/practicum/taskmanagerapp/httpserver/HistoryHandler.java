@@ -1,12 +1,13 @@
 package ru.yandex.practicum.taskmanagerapp.httpserver;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
 
 import java.io.IOException;
 
 public class HistoryHandler extends BaseHttpHandler {
+    private static final Router<Boolean> ROUTER = new Router<>(false).add("GET", "", true);
+
     private final TaskManager taskManager;
 
     public HistoryHandler(TaskManager taskManager) {
@@ -15,14 +16,15 @@ public class HistoryHandler extends BaseHttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String[] pathParts = exchange.getRequestURI().getPath().split("/");
-
-        if (pathParts.length != 2 || !method.equals("GET")) {
+        if (!ROUTER.route(exchange).getRoute()) {
             sendBadRequest(exchange);
+            return;
         }
 
-        Gson gson = HttpTaskServer.getGson();
-        sendText(exchange, gson.toJson(taskManager.getHistory()));
+        try {
+            sendJson(exchange, taskManager.getHistory());
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange);
+        }
     }
 }
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.practicum.taskmanagerapp.history.SessionHistoryManager;
+
+import java.io.IOException;
+
+// Binds the request thread to the history session of the client
+class HistorySessionFilter extends Filter {
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final SessionHistoryManager historyManager;
+
+    HistorySessionFilter(SessionHistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String clientId = exchange.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        historyManager.setCurrentSession(clientId);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            historyManager.clearCurrentSession();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Sets history session by " + CLIENT_ID_HEADER + " header";
+    }
+}
@@ -2,17 +2,55 @@ package ru.yandex.practicum.taskmanagerapp.httpserver;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import ru.yandex.practicum.taskmanagerapp.history.SessionHistoryManager;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
 import ru.yandex.practicum.taskmanagerapp.taskmanager.Managers;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.ShardedTaskManager;
 import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpTaskServer {
+    // How requests are executed: a new virtual thread per request, a fixed pool of platform threads
+    // or one platform thread, which runs handlers one at a time for a task manager that is not thread-safe
+    public enum ExecutorType {
+        VIRTUAL,
+        PLATFORM,
+        SINGLE
+    }
+
+    // Which HTTP server accepts connections: the JDK one or NioHttpServer for many keep-alive connections
+    public enum Transport {
+        JDK,
+        NIO
+    }
+
+    public static final int DEFAULT_BACKLOG = 0;     // system default
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    public static final long RESPONSE_CACHE_SIZE = 16 * 1024 * 1024;
+
     private final TaskManager taskManager;
+    private final Transport transport;
+    private final ExecutorType executorType;
+    private final int poolSize;
+    private final int backlog;
+    private final ResponseCache responseCache = new ResponseCache(RESPONSE_CACHE_SIZE);
+    private ExecutorService executor;
+    private EventsHandler eventsHandler;    // shared by both listeners, so stop ends all event streams
+    private NioHttpServer unixSocketServer;
 
     private static HttpServer httpServer;
     private static final int TCP_PORT = 8080;
@@ -20,28 +58,120 @@ public class HttpTaskServer {
     public static Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
             .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .registerTypeAdapter(Task.class, new TaskTypeAdapter<>(Task.class))
+            .registerTypeAdapter(Epic.class, new TaskTypeAdapter<>(Epic.class))
+            .registerTypeAdapter(Subtask.class, new TaskTypeAdapter<>(Subtask.class))
             .create();
 
+    // Requests run concurrently only for a ShardedTaskManager, other task managers get one request thread
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, Transport.JDK,
+                (taskManager instanceof ShardedTaskManager) ? ExecutorType.VIRTUAL : ExecutorType.SINGLE,
+                DEFAULT_POOL_SIZE, DEFAULT_BACKLOG);
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ExecutorType executorType, int poolSize, int backlog)
+            throws IOException {
+        this(taskManager, Transport.JDK, executorType, poolSize, backlog);
+    }
+
+    // Unless executorType is SINGLE, handlers run concurrently, so taskManager must be thread-safe
+    // (see ShardedTaskManager). poolSize is used by the platform thread pool only
+    public HttpTaskServer(TaskManager taskManager, Transport transport, ExecutorType executorType, int poolSize,
+                          int backlog) throws IOException {
+        if (poolSize < 1 || backlog < 0) {
+            throw new IllegalArgumentException("Pool size must be positive, backlog must not be negative");
+        }
         this.taskManager = taskManager;
+        this.transport = transport;
+        this.executorType = executorType;
+        this.poolSize = poolSize;
+        this.backlog = backlog;
         init();
     }
 
     public void init() throws IOException {
-        httpServer = HttpServer.create(new InetSocketAddress(TCP_PORT), 0);
-        httpServer.createContext("/tasks", new TaskHandler(taskManager));
-        httpServer.createContext("/epics", new EpicHandler(taskManager));
-        httpServer.createContext("/subtasks", new SubtaskHandler(taskManager));
-        httpServer.createContext("/history", new HistoryHandler(taskManager));
-        httpServer.createContext("/prioritized", new PrioritazedHandle(taskManager));
+        httpServer = switch (transport) {
+            case JDK -> HttpServer.create(new InetSocketAddress(TCP_PORT), backlog);
+            case NIO -> NioHttpServer.create(new InetSocketAddress(TCP_PORT), backlog);
+        };
+        executor = createExecutor();
+        eventsHandler = new EventsHandler(taskManager);
+        httpServer.setExecutor(executor);
+        createContexts(httpServer);
+    }
+
+    // Also serves requests on a Unix domain socket, which lets clients on the same host skip the TCP stack.
+    // Must be called before start; the socket file must not exist and is deleted on stop
+    public void listenOnUnixSocket(Path path) throws IOException {
+        if (unixSocketServer != null) {
+            throw new IllegalStateException("Unix domain socket is already listened on");
+        }
+        unixSocketServer = NioHttpServer.create(UnixDomainSocketAddress.of(path), backlog);
+        unixSocketServer.setExecutor(executor);
+        createContexts(unixSocketServer);
+    }
+
+    private void createContexts(HttpServer server) {
+        createContext(server, "/tasks", new TaskHandler(taskManager, responseCache));
+        createContext(server, "/epics", new EpicHandler(taskManager, responseCache));
+        createContext(server, "/subtasks", new SubtaskHandler(taskManager, responseCache));
+        createContext(server, "/history", new HistoryHandler(taskManager));
+        createContext(server, "/prioritized", new PrioritazedHandle(taskManager, responseCache));
+        createContext(server, "/stats", new StatsHandler(taskManager, responseCache));
+        createContext(server, "/batch", new BatchHandler(taskManager));
+        createContext(server, "/events", eventsHandler);
+        createContext(server, "/sync", new SyncHandler(taskManager));
+    }
+
+    private ExecutorService createExecutor() {
+        return switch (executorType) {
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+            case PLATFORM, SINGLE -> {
+                AtomicInteger threadNumber = new AtomicInteger();
+                yield Executors.newFixedThreadPool((executorType == ExecutorType.SINGLE) ? 1 : poolSize, r -> {
+                    Thread thread = new Thread(r, "http-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        };
+    }
+
+    private void createContext(HttpServer server, String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        // Sessions are bound on the manager of this server only
+        if (taskManager.getHistoryManager() instanceof SessionHistoryManager sessions) {
+            context.getFilters().add(new HistorySessionFilter(sessions));
+        }
     }
 
     public void start() throws IOException {
         httpServer.start();
+        if (unixSocketServer != null) {
+            unixSocketServer.start();
+        }
     }
 
     public void stop() {
+        eventsHandler.close();
+        if (unixSocketServer != null) {
+            unixSocketServer.stop(1);
+        }
         httpServer.stop(1);
+        executor.shutdown();
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public ExecutorType getExecutorType() {
+        return executorType;
     }
 
 
@@ -49,9 +179,41 @@ public class HttpTaskServer {
         return gson;
     }
 
+    // Options: --transport=jdk|nio, --executor=virtual|platform|single, --threads=<platform pool size>,
+    // --backlog=<connection backlog>, --unix-socket=<socket file path>
     public static void main(String[] args) throws IOException {
-        TaskManager taskManager = Managers.getDefault();
-        HttpTaskServer server = new HttpTaskServer(taskManager);
+        launch(args);
+    }
+
+    // Starts the server with the options of main, null args means no options
+    static HttpTaskServer launch(String[] args) throws IOException {
+        Transport transport = Transport.JDK;
+        ExecutorType executorType = ExecutorType.VIRTUAL;
+        int poolSize = DEFAULT_POOL_SIZE;
+        int backlog = DEFAULT_BACKLOG;
+        Path unixSocketPath = null;
+        for (String arg : args == null ? new String[0] : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Option must look like --name=value: " + arg);
+            }
+            switch (option[0]) {
+                case "--transport" -> transport = Transport.valueOf(option[1].toUpperCase());
+                case "--executor" -> executorType = ExecutorType.valueOf(option[1].toUpperCase());
+                case "--threads" -> poolSize = Integer.parseInt(option[1]);
+                case "--backlog" -> backlog = Integer.parseInt(option[1]);
+                case "--unix-socket" -> unixSocketPath = Path.of(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+
+        TaskManager taskManager = new ShardedTaskManager(Runtime.getRuntime().availableProcessors(),
+                Managers.getSessionHistory());
+        HttpTaskServer server = new HttpTaskServer(taskManager, transport, executorType, poolSize, backlog);
+        if (unixSocketPath != null) {
+            server.listenOnUnixSocket(unixSocketPath);
+        }
         server.start();
+        return server;
     }
 }
@@ -3,15 +3,24 @@ package ru.yandex.practicum.taskmanagerapp.httpserver;
 import com.sun.net.httpserver.HttpExchange;
 import ru.yandex.practicum.taskmanagerapp.exception.BadJsonException;
 import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.Page;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskQuery;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 abstract class ItemHandler extends BaseHttpHandler {
     protected enum Endpoint {
         GET_ITEM,
         GET_ALL_ITEMS,
+        GET_SUBITEMS,
         ADD_ITEM,
         UPDATE_ITEM,
         DELETE_ITEM,
@@ -19,41 +28,96 @@ abstract class ItemHandler extends BaseHttpHandler {
     }
 
     protected static final String ID_TEMPLATE = "{\"id\":%d}";
+    private static final Router<Endpoint> ROUTER = new Router<>(Endpoint.UNKNOWN)
+            .add("GET", "", Endpoint.GET_ALL_ITEMS)
+            .add("POST", "", Endpoint.ADD_ITEM)
+            .add("GET", "/{id}", Endpoint.GET_ITEM)
+            .add("POST", "/{id}", Endpoint.UPDATE_ITEM)
+            .add("DELETE", "/{id}", Endpoint.DELETE_ITEM)
+            .add("GET", "/{id}/subtasks", Endpoint.GET_SUBITEMS);
 
-    protected static Endpoint getEndpoint(HttpExchange exchange) {
-        String method = exchange.getRequestMethod();
-        String[] pathParts = exchange.getRequestURI().getPath().split("/");
+    protected static final int DEFAULT_PAGE_SIZE = 100;
+    protected static final int MAX_PAGE_SIZE = 1000;
+    private static final Set<String> PAGE_PARAMETERS = Set.of("limit", "cursor", "status", "epicId", "from", "to");
+    private static final String CURSOR_PREFIX = "id:";
 
-        if (pathParts.length == 2) {
-            return switch (method) {
-                case "GET" -> Endpoint.GET_ALL_ITEMS;
-                case "POST" -> Endpoint.ADD_ITEM;
-                default -> Endpoint.UNKNOWN;
-            };
-        } else if (pathParts.length == 3) {
-            if (getItemId(exchange).isEmpty()) {
-                return Endpoint.UNKNOWN;
-            }
-            return switch (method) {
-                case "GET" -> Endpoint.GET_ITEM;
-                case "POST" -> Endpoint.UPDATE_ITEM;
-                case "DELETE" -> Endpoint.DELETE_ITEM;
-                default -> Endpoint.UNKNOWN;
-            };
-        }
-        return Endpoint.UNKNOWN;
+    // List request with paging or filter parameters: ?limit=&cursor=&status=&epicId=&from=&to=
+    protected record PageRequest(TaskQuery query, int afterId, int limit) {
     }
 
-    protected static Optional<Integer> getItemId(HttpExchange exchange) {
-        String[] pathParts = exchange.getRequestURI().getPath().split("/");
-        try {
-            return Optional.of(Integer.parseInt(pathParts[2]));
-        } catch (Exception e) {
+    // Response to a page request, nextCursor is omitted on the last page
+    private record PageResponse(List<?> items, String nextCursor) {
+    }
+
+    protected static Router.Match<Endpoint> getRoute(HttpExchange exchange) {
+        return ROUTER.route(exchange);
+    }
+
+    // Returns empty if the request has no paging or filter parameters, the whole list is sent then.
+    // Throws IllegalArgumentException if a parameter is malformed
+    protected static Optional<PageRequest> getPageRequest(HttpExchange exchange) {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        if (parameters.keySet().stream().noneMatch(PAGE_PARAMETERS::contains)) {
             return Optional.empty();
         }
+        int limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be from 1 to " + MAX_PAGE_SIZE);
+        }
+        int afterId = parameters.containsKey("cursor") ? decodeCursor(parameters.get("cursor")) : Task.NULL_ID;
+        try {
+            TaskQuery query = new TaskQuery(
+                    parameters.containsKey("status") ? TaskStatus.valueOf(parameters.get("status")) : null,
+                    parameters.containsKey("epicId") ? Integer.valueOf(parameters.get("epicId")) : null,
+                    parameters.containsKey("from") ? LocalDateTime.parse(parameters.get("from")) : null,
+                    parameters.containsKey("to") ? LocalDateTime.parse(parameters.get("to")) : null);
+            return Optional.of(new PageRequest(query, afterId, limit));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
+    // Cursor is opaque for clients, so its format may be changed later
+    private static String encodeCursor(int id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(CURSOR_PREFIX)) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+    }
+
+    // Page is cached by the request path and query
+    protected <T extends Task> void sendPage(HttpExchange exchange, ResponseCache cache, long version,
+                                             Supplier<Page<T>> page) throws IOException {
+        sendPage(exchange, cache, version, page, items -> items);
+    }
+
+    // Items of the page are sent as mapped by expander, e.g. with embedded subitems
+    protected <T extends Task> void sendPage(HttpExchange exchange, ResponseCache cache, long version,
+                                             Supplier<Page<T>> page,
+                                             Function<List<T>, List<?>> expander) throws IOException {
+        String key = exchange.getRequestURI().getPath() + "?" + exchange.getRequestURI().getRawQuery();
+        sendCachedJson(exchange, cache, key, new long[]{version}, () -> {
+            Page<T> itemPage = page.get();
+            return new PageResponse(expander.apply(itemPage.items()),
+                    itemPage.hasNext() ? encodeCursor(itemPage.nextAfterId()) : null);
+        });
+    }
+
+    // Body is JSON or binary encoding if Content-Type says so
     protected static <T extends Task> T deserializeItem(HttpExchange exchange, Class<T> itemClass) throws IOException {
+        if (hasBinaryBody(exchange)) {
+            try {
+                return TaskBinaryCodec.readItem(new BufferedInputStream(exchange.getRequestBody()), itemClass);
+            } catch (Exception e) {
+                throw new BadJsonException();
+            }
+        }
         String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
         try {
             return HttpTaskServer.getGson().fromJson(body, itemClass);
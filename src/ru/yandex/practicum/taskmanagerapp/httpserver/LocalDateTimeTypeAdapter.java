@@ -9,12 +9,15 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+// Dates of the usual form "dd.MM.uuuu HH:mm:ss" with a 4-digit year are formatted and parsed by hand,
+// other values go through the formatter, so the result is always the same as the formatter's one
 public class LocalDateTimeTypeAdapter extends TypeAdapter<LocalDateTime> {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.uuuu HH:mm:ss");
+    private static final int DATE_TIME_LENGTH = 19;
 
     @Override
     public void write(final JsonWriter jsonWriter, final LocalDateTime date) throws IOException {
-        jsonWriter.value((date == null) ? null : date.format(formatter));
+        jsonWriter.value((date == null) ? null : format(date));
     }
 
     @Override
@@ -23,6 +26,64 @@ public class LocalDateTimeTypeAdapter extends TypeAdapter<LocalDateTime> {
             jsonReader.nextNull();
             return null;
         }
-        return LocalDateTime.parse(jsonReader.nextString(), formatter);
+        return parse(jsonReader.nextString());
+    }
+
+    static String format(LocalDateTime date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return date.format(formatter);
+        }
+        char[] chars = new char[DATE_TIME_LENGTH];
+        putDigits(chars, 0, date.getDayOfMonth(), 2);
+        chars[2] = '.';
+        putDigits(chars, 3, date.getMonthValue(), 2);
+        chars[5] = '.';
+        putDigits(chars, 6, year, 4);
+        chars[10] = ' ';
+        putDigits(chars, 11, date.getHour(), 2);
+        chars[13] = ':';
+        putDigits(chars, 14, date.getMinute(), 2);
+        chars[16] = ':';
+        putDigits(chars, 17, date.getSecond(), 2);
+        return new String(chars);
+    }
+
+    private static void putDigits(char[] chars, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Days after the 28th are left to the formatter: it resolves invalid dates like 31.02 leniently
+    static LocalDateTime parse(String text) {
+        if (text.length() == DATE_TIME_LENGTH && text.charAt(2) == '.' && text.charAt(5) == '.'
+                && text.charAt(10) == ' ' && text.charAt(13) == ':' && text.charAt(16) == ':') {
+            int day = getDigits(text, 0, 2);
+            int month = getDigits(text, 3, 2);
+            int year = getDigits(text, 6, 4);
+            int hour = getDigits(text, 11, 2);
+            int minute = getDigits(text, 14, 2);
+            int second = getDigits(text, 17, 2);
+            if (day >= 1 && day <= 28 && month >= 1 && month <= 12 && year >= 0 && hour >= 0 && hour <= 23
+                    && minute >= 0 && minute <= 59 && second >= 0 && second <= 59) {
+                return LocalDateTime.of(year, month, day, hour, minute, second);
+            }
+        }
+        return LocalDateTime.parse(text, formatter);
+    }
+
+    // Returns -1 if there is a non-digit character
+    private static int getDigits(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
     }
 }
@@ -0,0 +1,318 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.sun.net.httpserver.Headers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Connection of NioHttpServer.
+// The selector thread reads requests: the request line and headers are collected in a pooled buffer,
+// which is returned to the pool as soon as it is empty, so idle connections hold no buffer; the body is
+// read into its own array, which starts at the read buffer size and doubles as data arrives, so a large
+// Content-Length costs no memory until the body is sent. While a request is handled, the connection is not read, and the worker thread
+// writes the response to the channel itself, waiting for the selector only when the socket buffer is full
+final class NioConnection {
+    // Parsed request line and headers
+    record RequestHead(String method, URI uri, String protocol, Headers headers, int contentLength,
+                       boolean isKeepAlive) {
+    }
+
+    private static final long WRITE_TIMEOUT_SECONDS = 60;
+    private static final byte[] CONTINUE_RESPONSE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioHttpServer server;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final BufferPool bufferPool;
+
+    // Accessed by the selector thread only
+    private ByteBuffer readBuffer;
+    private int scannedLength = 0;
+    private RequestHead head;
+    private byte[] body;
+    private int bodyLength;
+    private boolean isHandled = false;
+    private long lastActiveTime = System.nanoTime();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition writable = writeLock.newCondition();
+    private boolean isWritable = false;
+    private volatile boolean isClosed = false;
+
+    NioConnection(NioHttpServer server, SocketChannel channel, SelectionKey key, BufferPool bufferPool) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.bufferPool = bufferPool;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    boolean isIdleSince(long time) {
+        return !isHandled && lastActiveTime - time < 0;
+    }
+
+    // Selector thread
+    void onReadable() {
+        try {
+            int count;
+            if (head != null) {
+                if (bodyLength == body.length) {
+                    body = Arrays.copyOf(body, (int) Math.min(head.contentLength(), 2L * body.length));
+                }
+                count = channel.read(ByteBuffer.wrap(body, bodyLength, body.length - bodyLength));
+                bodyLength += Math.max(count, 0);
+            } else {
+                if (readBuffer == null) {
+                    readBuffer = bufferPool.acquire();
+                }
+                count = channel.read(readBuffer);
+            }
+            if (count < 0) {
+                close();
+                return;
+            }
+            lastActiveTime = System.nanoTime();
+            if (!processInput()) {
+                releaseEmptyBuffer();
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    // Selector thread
+    void onWritable() {
+        key.interestOps(0);
+        writeLock.lock();
+        try {
+            isWritable = true;
+            writable.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Selector thread, called when the response to the previous request has been sent
+    void onRequestDone(boolean isKeepAlive) {
+        isHandled = false;
+        lastActiveTime = System.nanoTime();
+        if (!isKeepAlive) {
+            close();
+            return;
+        }
+        try {
+            if (!processInput()) {
+                releaseEmptyBuffer();
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    // Parses buffered input, returns true if a complete request has been passed to the server
+    private boolean processInput() throws IOException {
+        if (head == null) {
+            if (readBuffer == null) {
+                return false;
+            }
+            int headLength = findHeadEnd();
+            if (headLength < 0) {
+                if (!readBuffer.hasRemaining()) {
+                    sendErrorAndClose(431);
+                }
+                return false;
+            }
+            try {
+                head = parseHead(headLength);
+            } catch (IllegalArgumentException e) {
+                sendErrorAndClose(400);
+                return false;
+            }
+            consume(headLength);
+            if (head.contentLength() < 0) {
+                sendErrorAndClose(411);
+                return false;
+            } else if (head.contentLength() > NioHttpServer.MAX_BODY_SIZE) {
+                sendErrorAndClose(413);
+                return false;
+            }
+            body = new byte[Math.min(head.contentLength(), Math.max(readBuffer.capacity(), readBuffer.position()))];
+            bodyLength = Math.min(body.length, readBuffer.position());
+            readBuffer.get(0, body, 0, bodyLength);
+            consume(bodyLength);
+            if (bodyLength < head.contentLength() && "100-continue".equalsIgnoreCase(head.headers().getFirst("Expect"))) {
+                channel.write(ByteBuffer.wrap(CONTINUE_RESPONSE));   // short enough to fit the socket buffer
+            }
+        }
+        if (bodyLength < head.contentLength()) {
+            return false;
+        }
+
+        RequestHead requestHead = head;
+        byte[] requestBody = body;
+        head = null;
+        body = null;
+        isHandled = true;
+        key.interestOps(0);
+        server.dispatch(this, requestHead, requestBody);
+        return true;
+    }
+
+    // Returns the length of the request line and headers with the empty line after them, -1 if not read yet
+    private int findHeadEnd() {
+        int end = readBuffer.position();
+        for (int i = Math.max(scannedLength - 3, 0); i + 3 < end; i++) {
+            if (readBuffer.get(i) == '\r' && readBuffer.get(i + 1) == '\n'
+                    && readBuffer.get(i + 2) == '\r' && readBuffer.get(i + 3) == '\n') {
+                scannedLength = 0;
+                return i + 4;
+            }
+        }
+        scannedLength = end;
+        return -1;
+    }
+
+    private RequestHead parseHead(int headLength) {
+        byte[] bytes = new byte[headLength - 4];
+        readBuffer.get(0, bytes);
+        String[] lines = new String(bytes, StandardCharsets.ISO_8859_1).split("\r\n");
+
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+            throw new IllegalArgumentException("Malformed request line");
+        }
+        URI uri;
+        try {
+            uri = new URI(requestLine[1]);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        Headers headers = new Headers();
+        for (int i = 1; i < lines.length; i++) {
+            int separator = lines[i].indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Malformed header");
+            }
+            headers.add(lines[i].substring(0, separator).trim(), lines[i].substring(separator + 1).trim());
+        }
+
+        int contentLength = 0;
+        if (headers.containsKey("Transfer-Encoding")) {
+            contentLength = -1;     // chunked request bodies are not supported
+        } else if (headers.containsKey("Content-Length")) {
+            try {
+                contentLength = Integer.parseInt(headers.getFirst("Content-Length"));
+            } catch (NumberFormatException e) {
+                contentLength = Integer.MAX_VALUE;  // too long anyway
+            }
+            if (contentLength < 0) {
+                throw new IllegalArgumentException("Negative content length");
+            }
+        }
+
+        String connection = headers.getFirst("Connection");
+        boolean isKeepAlive = requestLine[2].equals("HTTP/1.1")
+                ? !"close".equalsIgnoreCase(connection) : "keep-alive".equalsIgnoreCase(connection);
+        return new RequestHead(requestLine[0], uri, requestLine[2], headers, contentLength, isKeepAlive);
+    }
+
+    // Removes count bytes from the start of the read buffer
+    private void consume(int count) {
+        readBuffer.flip().position(count);
+        readBuffer.compact();
+    }
+
+    private void releaseEmptyBuffer() {
+        if (readBuffer != null && readBuffer.position() == 0) {
+            bufferPool.release(readBuffer);
+            readBuffer = null;
+        }
+    }
+
+    private void sendErrorAndClose(int code) {
+        byte[] response = ("HTTP/1.1 " + code + " " + NioHttpExchange.getReasonPhrase(code)
+                + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        try {
+            channel.write(ByteBuffer.wrap(response));
+        } catch (IOException e) {
+            // closed anyway
+        }
+        close();
+    }
+
+    // Worker thread: writes all buffers, waiting for the selector if the socket buffer is full
+    void write(ByteBuffer... buffers) throws IOException {
+        while (Arrays.stream(buffers).anyMatch(ByteBuffer::hasRemaining)) {
+            if (channel.write(buffers) == 0) {
+                awaitWritable();
+            }
+        }
+    }
+
+    private void awaitWritable() throws IOException {
+        writeLock.lock();
+        try {
+            isWritable = false;
+            server.runOnSelector(() -> {
+                if (key.isValid()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                }
+            });
+            long nanos = TimeUnit.SECONDS.toNanos(WRITE_TIMEOUT_SECONDS);
+            while (!isWritable && !isClosed) {
+                if (nanos <= 0) {
+                    throw new IOException("Write timed out");
+                }
+                nanos = writable.awaitNanos(nanos);
+            }
+            if (isClosed) {
+                throw new IOException("Connection closed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Any thread. The read buffer is returned to the pool by the selector thread
+    void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+        writeLock.lock();
+        try {
+            writable.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        server.runOnSelector(() -> {
+            if (readBuffer != null) {
+                bufferPool.release(readBuffer);
+                readBuffer = null;
+            }
+        });
+    }
+}
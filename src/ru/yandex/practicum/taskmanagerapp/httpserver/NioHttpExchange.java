@@ -0,0 +1,308 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Request and response of NioHttpServer.
+// The response body is collected in a pooled direct buffer, which is written to the channel when full.
+// Like in the JDK server, response length 0 means chunked encoding and -1 means no body
+class NioHttpExchange extends HttpExchange {
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioHttpServer server;
+    private final NioConnection connection;
+    private final HttpContext context;
+    private final NioConnection.RequestHead head;
+    private final BufferPool bufferPool;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    private InputStream requestBody;
+    private OutputStream responseBody = new ResponseStream();
+    private int responseCode = -1;
+    private long responseLength;    // -1 no body, 0 chunked
+    private long writtenLength = 0;
+    private boolean isKeepAlive;
+    private ByteBuffer headBuffer;  // response headers not written yet
+    private ByteBuffer buffer;
+    private boolean isClosed = false;
+    private volatile boolean isDetached = false;
+
+    NioHttpExchange(NioHttpServer server, NioConnection connection, HttpContext context,
+                    NioConnection.RequestHead head, byte[] body, BufferPool bufferPool) {
+        this.server = server;
+        this.connection = connection;
+        this.context = context;
+        this.head = head;
+        this.bufferPool = bufferPool;
+        this.requestBody = new ByteArrayInputStream(body);
+        this.isKeepAlive = head.isKeepAlive();
+    }
+
+    static String getReasonPhrase(int code) {
+        return switch (code) {
+            case 100 -> "Continue";
+            case 200 -> "OK";
+            case 201 -> "Created";
+            case 204 -> "No Content";
+            case 304 -> "Not Modified";
+            case 400 -> "Bad Request";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 406 -> "Not Acceptable";
+            case 411 -> "Length Required";
+            case 412 -> "Precondition Failed";
+            case 413 -> "Content Too Large";
+            case 424 -> "Failed Dependency";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            default -> "Status " + code;
+        };
+    }
+
+    boolean isResponseStarted() {
+        return responseCode >= 0;
+    }
+
+    // The handler has handed the exchange over to another thread, which closes it
+    void detach() {
+        isDetached = true;
+    }
+
+    boolean isDetached() {
+        return isDetached;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return head.headers();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return head.uri();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return head.method();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (isResponseStarted()) {
+            throw new IOException("Headers already sent");
+        }
+        responseCode = rCode;
+        boolean hasNoBody = rCode == 204 || rCode == 304 || head.method().equals("HEAD");
+        if (hasNoBody) {
+            responseLength = -1;
+        } else if (responseLength == 0 && !head.protocol().equals("HTTP/1.1")) {
+            isKeepAlive = false;    // HTTP/1.0 has no chunked encoding, the body ends when the connection closes
+            responseLength = Long.MAX_VALUE;
+        }
+        this.responseLength = responseLength;
+
+        StringBuilder builder = new StringBuilder(256)
+                .append("HTTP/1.1 ").append(rCode).append(' ').append(getReasonPhrase(rCode)).append("\r\n");
+        responseHeaders.set("Date", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+        if (responseLength == 0) {
+            responseHeaders.set("Transfer-Encoding", "chunked");
+        } else if (responseLength > 0 && responseLength != Long.MAX_VALUE) {
+            responseHeaders.set("Content-Length", Long.toString(responseLength));
+        } else if (!hasNoBody) {
+            responseHeaders.set("Content-Length", "0");
+        }
+        if (!isKeepAlive) {
+            responseHeaders.set("Connection", "close");
+        }
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (String value : header.getValue()) {
+                builder.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        builder.append("\r\n");
+        headBuffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        try {
+            SocketAddress address = connection.getChannel().getRemoteAddress();
+            return (address instanceof InetSocketAddress inetAddress) ? inetAddress : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        try {
+            SocketAddress address = connection.getChannel().getLocalAddress();
+            return (address instanceof InetSocketAddress inetAddress) ? inetAddress : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String getProtocol() {
+        return head.protocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (i != null) {
+            requestBody = i;
+        }
+        if (o != null) {
+            responseBody = o;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    // Finishes the response; the connection is read again if the response is complete
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        boolean isComplete = false;
+        try {
+            if (isResponseStarted()) {
+                flush(true);
+                isComplete = responseLength <= 0 || writtenLength == responseLength;
+            }
+        } catch (IOException e) {
+            isComplete = false;
+        } finally {
+            if (buffer != null) {
+                bufferPool.release(buffer);
+                buffer = null;
+            }
+        }
+        server.onExchangeDone(connection, isComplete && isKeepAlive);
+    }
+
+    // Writes the headers and the buffered body, with the last chunk if the response is finished
+    private void flush(boolean isLast) throws IOException {
+        ByteBuffer body = (buffer != null) ? buffer.flip() : ByteBuffer.allocate(0);
+        ByteBuffer chunkHeader = ByteBuffer.allocate(0);
+        ByteBuffer chunkTrailer = ByteBuffer.allocate(0);
+        if (responseLength == 0) {
+            if (body.hasRemaining()) {
+                chunkHeader = ByteBuffer.wrap((Integer.toHexString(body.remaining()) + "\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                chunkTrailer = ByteBuffer.wrap(isLast ? ("\r\n0\r\n\r\n").getBytes(StandardCharsets.US_ASCII)
+                        : "\r\n".getBytes(StandardCharsets.US_ASCII));
+            } else if (isLast) {
+                chunkTrailer = ByteBuffer.wrap(LAST_CHUNK);
+            }
+        }
+        ByteBuffer headers = (headBuffer != null) ? headBuffer : ByteBuffer.allocate(0);
+        headBuffer = null;
+        connection.write(headers, chunkHeader, body, chunkTrailer);
+        if (buffer != null) {
+            buffer.clear();
+        }
+    }
+
+    private class ResponseStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!isResponseStarted() || isClosed) {
+                throw new IOException("Response headers are not sent or exchange is closed");
+            } else if (responseLength < 0 || writtenLength + len > responseLength && responseLength > 0) {
+                throw new IOException("Too many bytes for the response length");
+            }
+            writtenLength += len;
+            if (buffer == null) {
+                buffer = bufferPool.acquire();
+            }
+            while (len > 0) {
+                int count = Math.min(len, buffer.remaining());
+                buffer.put(b, off, count);
+                off += count;
+                len -= count;
+                if (!buffer.hasRemaining()) {
+                    NioHttpExchange.this.flush(false);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (isResponseStarted() && !isClosed && (buffer != null && buffer.position() > 0 || headBuffer != null)) {
+                NioHttpExchange.this.flush(false);
+            }
+        }
+
+        @Override
+        public void close() {
+            NioHttpExchange.this.close();
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// HTTP server on a single selector thread, a drop-in replacement of the JDK server for many keep-alive
+// connections. The selector thread accepts connections and reads requests, handlers run on the executor.
+// Supported HTTP/1.1 subset: requests with Content-Length bodies (no chunked requests), Expect: 100-continue,
+// keep-alive and pipelining; responses with fixed length or chunked bodies.
+// Besides TCP, the server listens on a Unix domain socket if bound to UnixDomainSocketAddress
+public class NioHttpServer extends HttpServer {
+    static final int BUFFER_SIZE = 16 * 1024;               // also the limit of request line and headers
+    static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 1024;
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long SELECT_TIMEOUT_MILLIS = 1000;
+
+    private final BufferPool bufferPool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeExchanges = new AtomicInteger();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private SocketAddress localAddress;
+    private Thread selectorThread;
+    private Executor executor;
+    private ExecutorService defaultExecutor;
+    private volatile boolean isStopped = false;     // no new connections and requests
+    private volatile boolean isTerminated = false;  // the selector thread exits
+
+    // Hides HttpServer.create, which would return the JDK server
+    public static NioHttpServer create(InetSocketAddress address, int backlog) throws IOException {
+        return create((SocketAddress) address, backlog);
+    }
+
+    public static NioHttpServer create(SocketAddress address, int backlog) throws IOException {
+        NioHttpServer server = new NioHttpServer();
+        if (address != null) {
+            server.bind(address, backlog);
+        }
+        return server;
+    }
+
+    @Override
+    public void bind(InetSocketAddress addr, int backlog) throws IOException {
+        bind((SocketAddress) addr, backlog);
+    }
+
+    // The socket file of UnixDomainSocketAddress must not exist, it is deleted when the server stops
+    public void bind(SocketAddress addr, int backlog) throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("Server is already bound");
+        }
+        if (addr instanceof UnixDomainSocketAddress) {
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        }
+        serverChannel.bind(addr, backlog);
+        localAddress = serverChannel.getLocalAddress();
+        serverChannel.configureBlocking(false);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    @Override
+    public void start() {
+        if (serverChannel == null || selectorThread != null) {
+            throw new IllegalStateException("Server is not bound or already started");
+        }
+        if (executor == null) {
+            defaultExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            executor = defaultExecutor;
+        }
+        selectorThread = new Thread(this::runSelector, "nio-http-selector");
+        selectorThread.start();
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        if (selectorThread != null) {
+            throw new IllegalStateException("Server is already started");
+        }
+        this.executor = executor;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    // Stops accepting connections, waits up to delay seconds for running exchanges, then closes all connections
+    @Override
+    public void stop(int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay must not be negative");
+        }
+        if (isStopped) {
+            return;
+        }
+        isStopped = true;
+        runOnSelector(() -> {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delay);
+        while (activeExchanges.get() > 0 && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        isTerminated = true;
+        selector.wakeup();
+        if (selectorThread != null) {
+            try {
+                selectorThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (defaultExecutor != null) {
+            defaultExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        HttpContext context = createContext(path);
+        context.setHandler(handler);
+        return context;
+    }
+
+    @Override
+    public HttpContext createContext(String path) {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Path must start with /");
+        }
+        if (contexts.stream().anyMatch(context -> context.getPath().equals(path))) {
+            throw new IllegalArgumentException("Context already exists: " + path);
+        }
+        NioHttpContext context = new NioHttpContext(path);
+        contexts.add(context);
+        return context;
+    }
+
+    @Override
+    public void removeContext(String path) {
+        if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+            throw new IllegalArgumentException("No context: " + path);
+        }
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        removeContext(context.getPath());
+    }
+
+    // null if bound to a Unix domain socket, see getLocalAddress
+    @Override
+    public InetSocketAddress getAddress() {
+        SocketAddress address = getLocalAddress();
+        return (address instanceof InetSocketAddress inetAddress) ? inetAddress : null;
+    }
+
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    // Runs task on the selector thread
+    void runOnSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    // Selector thread: passes a complete request to the handler of the longest matching context
+    void dispatch(NioConnection connection, NioConnection.RequestHead head, byte[] body) {
+        String path = head.uri().getPath();
+        NioHttpContext context = contexts.stream()
+                .filter(c -> path != null && path.startsWith(c.getPath()))
+                .max(Comparator.comparingInt(c -> c.getPath().length()))
+                .orElse(null);
+        NioHttpExchange exchange = new NioHttpExchange(this, connection, context, head, body, bufferPool);
+        activeExchanges.incrementAndGet();
+        try {
+            executor.execute(() -> handle(connection, exchange, context));
+        } catch (RejectedExecutionException e) {
+            activeExchanges.decrementAndGet();
+            connection.close();
+        }
+    }
+
+    // Worker thread
+    private void handle(NioConnection connection, NioHttpExchange exchange, NioHttpContext context) {
+        try {
+            if (context == null || context.getHandler() == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+            }
+        } catch (Throwable e) {
+            if (exchange.isResponseStarted()) {
+                connection.close();     // the response is broken
+            } else {
+                try {
+                    exchange.sendResponseHeaders(500, -1);
+                } catch (IOException ignored) {
+                    // the connection is closed by the exchange
+                }
+            }
+        } finally {
+            if (!exchange.isDetached()) {
+                exchange.close();
+            }
+        }
+    }
+
+    // Worker thread: called once per exchange
+    void onExchangeDone(NioConnection connection, boolean isKeepAlive) {
+        activeExchanges.decrementAndGet();
+        if (isKeepAlive && !isStopped) {
+            runOnSelector(() -> connection.onRequestDone(true));
+        } else {
+            connection.close();
+        }
+    }
+
+    private void runSelector() {
+        long lastSweepTime = System.nanoTime();
+        try {
+            while (!isTerminated) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isWritable()) {
+                        ((NioConnection) key.attachment()).onWritable();
+                    } else if (key.isReadable()) {
+                        ((NioConnection) key.attachment()).onReadable();
+                    }
+                }
+                selector.selectedKeys().clear();
+
+                long now = System.nanoTime();
+                if (now - lastSweepTime > TimeUnit.MILLISECONDS.toNanos(SELECT_TIMEOUT_MILLIS)) {
+                    lastSweepTime = now;
+                    closeConnections(now - IDLE_TIMEOUT_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            // the selector is broken, nothing can be served
+        } finally {
+            closeConnections(Long.MAX_VALUE);
+            try {
+                serverChannel.close();
+                selector.close();
+                if (localAddress instanceof UnixDomainSocketAddress unixAddress) {
+                    Files.deleteIfExists(unixAddress.getPath());
+                }
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    // Closes connections idle since time; Long.MAX_VALUE closes all of them
+    private void closeConnections(long time) {
+        List<NioConnection> connections = new ArrayList<>();
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection connection
+                    && (time == Long.MAX_VALUE || connection.isIdleSince(time))) {
+                connections.add(connection);
+            }
+        }
+        connections.forEach(NioConnection::close);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            if (channel.getRemoteAddress() instanceof InetSocketAddress) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new NioConnection(this, channel, key, bufferPool));
+        }
+    }
+
+    private class NioHttpContext extends HttpContext {
+        private final String path;
+        private final List<Filter> filters = new CopyOnWriteArrayList<>();
+        private final Map<String, Object> attributes = new HashMap<>();
+        private volatile HttpHandler handler;
+        private Authenticator authenticator;
+
+        NioHttpContext(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public HttpHandler getHandler() {
+            return handler;
+        }
+
+        @Override
+        public void setHandler(HttpHandler handler) {
+            if (this.handler != null) {
+                throw new IllegalArgumentException("Handler already set");
+            }
+            this.handler = handler;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public HttpServer getServer() {
+            return NioHttpServer.this;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public List<Filter> getFilters() {
+            return filters;
+        }
+
+        @Override
+        public Authenticator setAuthenticator(Authenticator auth) {
+            Authenticator old = authenticator;
+            authenticator = auth;   // not supported, kept for the interface only
+            return old;
+        }
+
+        @Override
+        public Authenticator getAuthenticator() {
+            return authenticator;
+        }
+    }
+}
@@ -1,28 +1,38 @@
 package ru.yandex.practicum.taskmanagerapp.httpserver;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
 import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
 
 import java.io.IOException;
 
 public class PrioritazedHandle extends BaseHttpHandler {
+    private static final Router<Boolean> ROUTER = new Router<>(false).add("GET", "", true);
+
     private final TaskManager taskManager;
+    private final ResponseCache responseCache;
 
-    public PrioritazedHandle(TaskManager taskManager) {
+    public PrioritazedHandle(TaskManager taskManager, ResponseCache responseCache) {
         this.taskManager = taskManager;
+        this.responseCache = responseCache;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String[] pathParts = exchange.getRequestURI().getPath().split("/");
-
-        if (pathParts.length != 2 || !method.equals("GET")) {
+        if (!ROUTER.route(exchange).getRoute()) {
             sendBadRequest(exchange);
+            return;
         }
 
-        Gson gson = HttpTaskServer.getGson();
-        sendText(exchange, gson.toJson(taskManager.getPrioritizedTasks()));
+        try {
+            long taskVersion = taskManager.getVersion(TaskType.TASK);
+            long subtaskVersion = taskManager.getVersion(TaskType.SUBTASK);
+            if (!sendNotModified(exchange, toETag(Math.max(taskVersion, subtaskVersion), exchange))) {
+                sendCachedJson(exchange, responseCache, "/prioritized", new long[]{taskVersion, subtaskVersion},
+                        taskManager::getPrioritizedTasks);
+            }
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Cache of serialized GET responses.
+// An entry is stored with a stamp, the versions of the data it has been built from, and is returned
+// only for the same stamp, so a change of the data invalidates the entry without any notification.
+// The gzip-compressed variant of a body is built on the first request and kept in the same entry.
+// The least recently used entries are evicted when the total size exceeds the limit
+public class ResponseCache {
+    private static final int ENTRY_OVERHEAD = 64;   // estimation of the map node, entry and array headers
+
+    public record Stats(long hits, long misses, int entries, long size) {
+    }
+
+    private record Entry(long[] stamp, byte[] body, byte[] gzippedBody, int size) {
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxSize;
+    private final int maxEntrySize;
+    private long size = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    // Responses longer than maxSize / 8 are not cached
+    public ResponseCache(long maxSize) {
+        this(maxSize, (int) Math.min(Integer.MAX_VALUE, maxSize / 8));
+    }
+
+    public ResponseCache(long maxSize, int maxEntrySize) {
+        if (maxSize < 0 || maxEntrySize < 0 || maxEntrySize > maxSize) {
+            throw new IllegalArgumentException("Cache sizes must not be negative, entry must fit the cache");
+        }
+        this.maxSize = maxSize;
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    // Returns the cached body or null if there is no entry for key or it has a different stamp
+    public synchronized byte[] get(String key, long[] stamp) {
+        Entry entry = entries.get(key);
+        if (entry == null || !Arrays.equals(entry.stamp(), stamp)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.body();
+    }
+
+    public synchronized void put(String key, long[] stamp, byte[] body) {
+        int entrySize = body.length + key.length() * Character.BYTES + stamp.length * Long.BYTES + ENTRY_OVERHEAD;
+        if (entrySize > maxEntrySize) {
+            return;
+        }
+        putEntry(key, new Entry(stamp.clone(), body, null, entrySize));
+    }
+
+    // Returns gzip-compressed variant of body got by get(key, stamp)
+    public byte[] getGzipped(String key, byte[] body) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.body() == body && entry.gzippedBody() != null) {
+                return entry.gzippedBody();
+            }
+        }
+
+        byte[] gzippedBody = gzip(body);    // compressed without holding the lock
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.body() == body && entry.gzippedBody() == null
+                    && entry.size() + gzippedBody.length <= maxEntrySize) {
+                putEntry(key, new Entry(entry.stamp(), body, gzippedBody, entry.size() + gzippedBody.length));
+            }
+        }
+        return gzippedBody;
+    }
+
+    private void putEntry(String key, Entry entry) {
+        Entry oldEntry = entries.put(key, entry);
+        if (oldEntry != null) {
+            size -= oldEntry.size();
+        }
+        size += entry.size();
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().size();
+            iterator.remove();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+            gzipOutput.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);     // not thrown by in-memory streams
+        }
+        return output.toByteArray();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, entries.size(), size);
+    }
+}
@@ -0,0 +1,163 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Routes of a context, compiled once: a request path is matched in one pass, without splitting it.
+// Pattern is a path relative to the context path, e.g. "" for the context path itself or "/{id}/subtasks".
+// {name} matches an integer parameter, * matches any segment. Routes are tried in the order they were added,
+// the path of a request may end with slashes
+final class Router<R> {
+    private static final int WILDCARD = -1;
+
+    // Matched route and its path parameters
+    static final class Match<R> {
+        private final R route;
+        private final Pattern pattern;
+        private final int[] parameters;
+
+        private Match(R route, Pattern pattern, int[] parameters) {
+            this.route = route;
+            this.pattern = pattern;
+            this.parameters = parameters;
+        }
+
+        R getRoute() {
+            return route;
+        }
+
+        int getInt(String name) {
+            int index = (pattern != null) ? pattern.parameterNames.indexOf(name) : -1;
+            if (index < 0) {
+                throw new NoSuchElementException("No path parameter " + name);
+            }
+            return parameters[index];
+        }
+    }
+
+    // Segment is a literal or, if literal is null, a parameter index or WILDCARD
+    private record Segment(String literal, int parameter) {
+    }
+
+    private record Pattern(Segment[] segments, List<String> parameterNames) {
+    }
+
+    private record Route<R>(String method, Pattern pattern, R route) {
+    }
+
+    private final List<Route<R>> routes = new ArrayList<>();
+    private final Match<R> unknown;
+
+    // unknown is the route of requests that match no pattern
+    Router(R unknown) {
+        this.unknown = new Match<>(unknown, null, new int[0]);
+    }
+
+    Router<R> add(String method, String pattern, R route) {
+        routes.add(new Route<>(method, compile(pattern), route));
+        return this;
+    }
+
+    private static Pattern compile(String pattern) {
+        if (!pattern.isEmpty() && (!pattern.startsWith("/") || pattern.endsWith("/"))) {
+            throw new IllegalArgumentException("Pattern must start and must not end with /: " + pattern);
+        }
+        List<Segment> segments = new ArrayList<>();
+        List<String> parameterNames = new ArrayList<>();
+        int start = 1;
+        while (start <= pattern.length()) {
+            int end = pattern.indexOf('/', start);
+            end = (end < 0) ? pattern.length() : end;
+            String segment = pattern.substring(start, end);
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Empty segment in pattern: " + pattern);
+            } else if (segment.equals("*")) {
+                segments.add(new Segment(null, WILDCARD));
+            } else if (segment.startsWith("{") && segment.endsWith("}")) {
+                segments.add(new Segment(null, parameterNames.size()));
+                parameterNames.add(segment.substring(1, segment.length() - 1));
+            } else {
+                segments.add(new Segment(segment, 0));
+            }
+            start = end + 1;
+        }
+        return new Pattern(segments.toArray(new Segment[0]), List.copyOf(parameterNames));
+    }
+
+    // Path of the request relative to its context
+    Match<R> route(HttpExchange exchange) {
+        return match(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                exchange.getHttpContext().getPath().length());
+    }
+
+    // Matches path from index from, which must be the end of the path or a slash
+    Match<R> match(String method, String path, int from) {
+        int end = path.length();
+        while (end > from && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        for (Route<R> route : routes) {
+            if (route.method().equals(method)) {
+                int[] parameters = matchPattern(route.pattern(), path, from, end);
+                if (parameters != null) {
+                    return new Match<>(route.route(), route.pattern(), parameters);
+                }
+            }
+        }
+        return unknown;
+    }
+
+    // Returns parameter values or null if the path does not match
+    private static int[] matchPattern(Pattern pattern, String path, int from, int end) {
+        int[] parameters = new int[pattern.parameterNames().size()];
+        int position = from;
+        for (Segment segment : pattern.segments()) {
+            if (position >= end || path.charAt(position) != '/') {
+                return null;
+            }
+            int start = position + 1;
+            int segmentEnd = path.indexOf('/', start);
+            segmentEnd = (segmentEnd < 0 || segmentEnd > end) ? end : segmentEnd;
+            if (segment.literal() != null) {
+                if (segmentEnd - start != segment.literal().length()
+                        || !path.startsWith(segment.literal(), start)) {
+                    return null;
+                }
+            } else if (segment.parameter() == WILDCARD) {
+                if (segmentEnd == start) {
+                    return null;
+                }
+            } else {
+                long value = parseInt(path, start, segmentEnd);
+                if (value == Long.MIN_VALUE) {
+                    return null;
+                }
+                parameters[segment.parameter()] = (int) value;
+            }
+            position = segmentEnd;
+        }
+        return (position == end) ? parameters : null;
+    }
+
+    // Returns Long.MIN_VALUE if the text is not an int
+    private static long parseInt(String text, int start, int end) {
+        boolean isNegative = start < end && text.charAt(start) == '-';
+        int position = isNegative ? start + 1 : start;
+        if (position == end || end - position > 10) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            char c = text.charAt(position);
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        value = isNegative ? -value : value;
+        return (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) ? Long.MIN_VALUE : value;
+    }
+}
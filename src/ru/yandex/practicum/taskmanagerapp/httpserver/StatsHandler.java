@@ -0,0 +1,42 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+
+public class StatsHandler extends BaseHttpHandler {
+    private enum Endpoint {
+        HOT,
+        CACHE,
+        UNKNOWN_STATS,
+        UNKNOWN
+    }
+
+    private static final Router<Endpoint> ROUTER = new Router<>(Endpoint.UNKNOWN)
+            .add("GET", "/hot", Endpoint.HOT)
+            .add("GET", "/cache", Endpoint.CACHE)
+            .add("GET", "/*", Endpoint.UNKNOWN_STATS);
+
+    private final TaskManager taskManager;
+    private final ResponseCache responseCache;
+
+    public StatsHandler(TaskManager taskManager, ResponseCache responseCache) {
+        this.taskManager = taskManager;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            switch (ROUTER.route(exchange).getRoute()) {
+                case HOT -> sendJson(exchange, taskManager.getHotItems());
+                case CACHE -> sendJson(exchange, responseCache.getStats());
+                case UNKNOWN_STATS -> sendNotFound(exchange);
+                case UNKNOWN -> sendBadRequest(exchange);
+            }
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange);
+        }
+    }
+}
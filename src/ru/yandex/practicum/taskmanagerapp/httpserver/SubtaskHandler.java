@@ -1,12 +1,13 @@
 package ru.yandex.practicum.taskmanagerapp.httpserver;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import ru.yandex.practicum.taskmanagerapp.exception.BadJsonException;
 import ru.yandex.practicum.taskmanagerapp.exception.InconsistentDataException;
 import ru.yandex.practicum.taskmanagerapp.exception.NotFoundException;
 import ru.yandex.practicum.taskmanagerapp.exception.TimeConflictException;
+import ru.yandex.practicum.taskmanagerapp.exception.VersionConflictException;
 import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
 import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
 
 import java.io.IOException;
@@ -14,24 +15,40 @@ import java.util.Optional;
 
 public class SubtaskHandler extends ItemHandler {
     private final TaskManager taskManager;
+    private final ResponseCache responseCache;
 
-    public SubtaskHandler(TaskManager taskManager) {
+    public SubtaskHandler(TaskManager taskManager, ResponseCache responseCache) {
         this.taskManager = taskManager;
+        this.responseCache = responseCache;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        ItemHandler.Endpoint endpoint = getEndpoint(exchange);
-        Optional<Integer> optItemId = getItemId(exchange);
-        Gson gson = HttpTaskServer.getGson();
-
+        Router.Match<Endpoint> route = getRoute(exchange);
         try {
-            switch (endpoint) {
+            switch (route.getRoute()) {
                 case GET_ITEM -> {
-                    sendText(exchange, gson.toJson(taskManager.getSubtask(optItemId.get())));
+                    long version = taskManager.getItemVersion(route.getInt("id"));
+                    Subtask subtask = taskManager.getSubtask(route.getInt("id"));     // view is recorded anyway
+                    if (!sendNotModified(exchange, toETag(version, exchange))) {
+                        sendCachedJson(exchange, responseCache, "/subtasks/" + subtask.getId(),
+                                new long[]{version}, () -> subtask);
+                    }
                 }
                 case GET_ALL_ITEMS -> {
-                    sendText(exchange, gson.toJson(taskManager.getSubtaskList()));
+                    long version = taskManager.getVersion(TaskType.SUBTASK);
+                    Optional<PageRequest> pageRequest = getPageRequest(exchange);
+                    if (sendNotModified(exchange, toETag(version, exchange))) {
+                        return;
+                    }
+                    if (pageRequest.isPresent()) {
+                        PageRequest request = pageRequest.get();
+                        sendPage(exchange, responseCache, version,
+                                () -> taskManager.getSubtasks(request.query(), request.afterId(), request.limit()));
+                    } else {
+                        sendCachedJson(exchange, responseCache, "/subtasks", new long[]{version},
+                                taskManager::getSubtaskList);
+                    }
                 }
                 case ADD_ITEM -> {
                     Subtask subtask = deserializeItem(exchange, Subtask.class);
@@ -39,19 +56,32 @@ public class SubtaskHandler extends ItemHandler {
                 }
                 case UPDATE_ITEM -> {
                     Subtask subtask = deserializeItem(exchange, Subtask.class);
-                    if (subtask.getId() != 0 && subtask.getId() != optItemId.get()) {
+                    if (subtask.getId() != 0 && subtask.getId() != route.getInt("id")) {
                         sendBadRequest(exchange);
                     } else {
-                        subtask.setId(optItemId.get());
-                        taskManager.updateSubtask(subtask);
+                        int id = route.getInt("id");
+                        subtask.setId(id);
+                        long version = getIfMatchVersion(exchange, () -> taskManager.getItemVersion(id));
+                        if (version == ANY_VERSION) {
+                            taskManager.updateSubtask(subtask);
+                        } else {
+                            exchange.getResponseHeaders().add("ETag",
+                                    toETag(taskManager.updateSubtask(subtask, version), exchange));
+                        }
                         sendOK(exchange);
                     }
                 }
                 case DELETE_ITEM -> {
-                    taskManager.removeSubtask(optItemId.get());
+                    int id = route.getInt("id");
+                    long version = getIfMatchVersion(exchange, () -> taskManager.getItemVersion(id));
+                    if (version == ANY_VERSION) {
+                        taskManager.removeSubtask(id);
+                    } else {
+                        taskManager.removeSubtask(id, version);
+                    }
                     sendOK(exchange);
                 }
-                case UNKNOWN -> {
+                case GET_SUBITEMS, UNKNOWN -> {
                     sendBadRequest(exchange);
                 }
             }
@@ -59,7 +89,9 @@ public class SubtaskHandler extends ItemHandler {
             sendNotFound(exchange);
         } catch (TimeConflictException | InconsistentDataException e) {
             sendHasOverlaps(exchange);
-        } catch (BadJsonException e) {
+        } catch (VersionConflictException e) {
+            sendPreconditionFailed(exchange);
+        } catch (BadJsonException | IllegalArgumentException e) {
             sendBadRequest(exchange);
         } catch (Exception e) {
             sendInternalError(exchange);
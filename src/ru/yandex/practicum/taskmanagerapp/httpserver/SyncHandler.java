@@ -0,0 +1,39 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+
+// GET /sync?since=<version> responds with the items created, changed or deleted after version:
+// {"version": N, "resync": false, "tasks": [...], "epics": [...], "subtasks": [...], "deleted": [ids]}.
+// The next sync is requested since N. If the changes are not kept any more, "resync" is true:
+// the client reloads the lists and syncs since N. A client with no state starts with since=0
+public class SyncHandler extends BaseHttpHandler {
+    private static final Router<Boolean> ROUTER = new Router<>(false).add("GET", "", true);
+
+    private final TaskManager taskManager;
+
+    public SyncHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!ROUTER.route(exchange).getRoute()) {
+            sendBadRequest(exchange);
+            return;
+        }
+
+        try {
+            String since = getQueryParameters(exchange).get("since");
+            if (since == null) {
+                sendBadRequest(exchange);
+                return;
+            }
+            sendJson(exchange, taskManager.getEventBus().getChangesSince(Long.parseLong(since)));
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact binary encoding of items and item lists, media type application/x-task-binary.
+//
+// document := 0xB7 version(0x01) (0x01 item | 0x02 count item*)
+// item     := kind flags id [name] [description] [status] [startTime] duration
+//             epic: [endTime] count subtaskId*
+//             subtask: epicId
+// kind: 0 task, 1 epic, 2 subtask. Fields in [] are present if their flag is set:
+// 0x01 name, 0x02 description, 0x04 status, 0x08 startTime, 0x10 endTime.
+// count is an unsigned varint (LEB128). id, subtaskId, epicId, times and duration are zigzag varints,
+// times in seconds from 1970-01-01T00:00, duration in minutes. String is the varint byte length and
+// UTF-8 bytes. status is a byte: 0 NEW, 1 IN_PROGRESS, 2 DONE.
+// The first byte is never the first byte of JSON, so an encoded body is told from a JSON one
+public final class TaskBinaryCodec {
+    public static final String CONTENT_TYPE = "application/x-task-binary";
+
+    private static final int MAGIC = 0xB7;
+    private static final int VERSION = 1;
+    private static final int ITEM = 1;
+    private static final int LIST = 2;
+
+    private static final int TASK = 0;
+    private static final int EPIC = 1;
+    private static final int SUBTASK = 2;
+
+    private static final int HAS_NAME = 0x01;
+    private static final int HAS_DESCRIPTION = 0x02;
+    private static final int HAS_STATUS = 0x04;
+    private static final int HAS_START_TIME = 0x08;
+    private static final int HAS_END_TIME = 0x10;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    private TaskBinaryCodec() {
+    }
+
+    // Item or list of items
+    static boolean canEncode(Object value) {
+        if (value instanceof Task) {
+            return true;
+        }
+        return value instanceof List<?> list && list.stream().allMatch(item -> item instanceof Task);
+    }
+
+    static boolean isEncoded(byte[] body) {
+        return body.length > 0 && (body[0] & 0xFF) == MAGIC;
+    }
+
+    // value must be encodable, output is not closed
+    static void write(Object value, OutputStream output) throws IOException {
+        output.write(MAGIC);
+        output.write(VERSION);
+        if (value instanceof Task item) {
+            output.write(ITEM);
+            writeItem(output, item);
+        } else {
+            List<?> items = (List<?>) value;
+            output.write(LIST);
+            writeVarLong(output, items.size());
+            for (Object item : items) {
+                writeItem(output, (Task) item);
+            }
+        }
+    }
+
+    private static void writeItem(OutputStream output, Task item) throws IOException {
+        Epic epic = (item instanceof Epic) ? (Epic) item : null;
+        output.write((epic != null) ? EPIC : (item instanceof Subtask) ? SUBTASK : TASK);
+        int flags = 0;
+        flags |= (item.getName() != null) ? HAS_NAME : 0;
+        flags |= (item.getDescription() != null) ? HAS_DESCRIPTION : 0;
+        flags |= (item.getStatus() != null) ? HAS_STATUS : 0;
+        flags |= item.getStartTime().isPresent() ? HAS_START_TIME : 0;
+        flags |= (epic != null && epic.getEndTime().isPresent()) ? HAS_END_TIME : 0;
+        output.write(flags);
+
+        writeZigzag(output, item.getId());
+        if (item.getName() != null) {
+            writeString(output, item.getName());
+        }
+        if (item.getDescription() != null) {
+            writeString(output, item.getDescription());
+        }
+        if (item.getStatus() != null) {
+            output.write(item.getStatus().ordinal());
+        }
+        if (item.getStartTime().isPresent()) {
+            writeZigzag(output, item.getStartTime().get().toEpochSecond(ZoneOffset.UTC));
+        }
+        writeZigzag(output, (item.getDuration() != null) ? item.getDuration().toMinutes() : 0);
+
+        if (epic != null) {
+            if (epic.getEndTime().isPresent()) {
+                writeZigzag(output, epic.getEndTime().get().toEpochSecond(ZoneOffset.UTC));
+            }
+            List<Integer> subtaskIds = epic.getSubtaskIds();
+            writeVarLong(output, subtaskIds.size());
+            for (int subtaskId : subtaskIds) {
+                writeZigzag(output, subtaskId);
+            }
+        } else if (item instanceof Subtask subtask) {
+            writeZigzag(output, subtask.getEpicId());
+        }
+    }
+
+    private static void writeString(OutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private static void writeZigzag(OutputStream output, long value) throws IOException {
+        writeVarLong(output, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeVarLong(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    // Reads a document with a single item of itemClass, throws IOException if it is malformed
+    static <T extends Task> T readItem(InputStream input, Class<T> itemClass) throws IOException {
+        readHeader(input, ITEM);
+        Task item = readItem(input);
+        if (item.getClass() != itemClass) {
+            throw new IOException("Item is not " + itemClass.getSimpleName());
+        }
+        return itemClass.cast(item);
+    }
+
+    static List<Task> readList(InputStream input) throws IOException {
+        readHeader(input, LIST);
+        long count = readVarLong(input);
+        List<Task> items = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            items.add(readItem(input));
+        }
+        return items;
+    }
+
+    private static void readHeader(InputStream input, int documentType) throws IOException {
+        if (readByte(input) != MAGIC || readByte(input) != VERSION || readByte(input) != documentType) {
+            throw new IOException("Unsupported document");
+        }
+    }
+
+    private static Task readItem(InputStream input) throws IOException {
+        int kind = readByte(input);
+        if (kind != TASK && kind != EPIC && kind != SUBTASK) {
+            throw new IOException("Unknown item kind " + kind);
+        }
+        int flags = readByte(input);
+        int id = readInt(input);
+        String name = ((flags & HAS_NAME) != 0) ? readString(input) : null;
+        String description = ((flags & HAS_DESCRIPTION) != 0) ? readString(input) : null;
+        TaskStatus status = null;
+        if ((flags & HAS_STATUS) != 0) {
+            int ordinal = readByte(input);
+            if (ordinal >= STATUSES.length) {
+                throw new IOException("Unknown status " + ordinal);
+            }
+            status = STATUSES[ordinal];
+        }
+        LocalDateTime startTime = ((flags & HAS_START_TIME) != 0) ? readDateTime(input) : null;
+        Duration duration = Duration.ofMinutes(readZigzag(input));
+
+        if (kind == EPIC) {
+            LocalDateTime endTime = ((flags & HAS_END_TIME) != 0) ? readDateTime(input) : null;
+            long count = readVarLong(input);
+            List<Integer> subtaskIds = new ArrayList<>();
+            for (long i = 0; i < count; i++) {
+                subtaskIds.add(readInt(input));
+            }
+            return new Epic(id, name, description, status, startTime, duration, endTime, subtaskIds);
+        } else if (kind == SUBTASK) {
+            return new Subtask(id, name, description, status, startTime, duration, readInt(input));
+        }
+        return new Task(id, name, description, status, startTime, duration);
+    }
+
+    private static int readByte(InputStream input) throws IOException {
+        int b = input.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private static String readString(InputStream input) throws IOException {
+        long length = readVarLong(input);
+        if (length > MAX_STRING_LENGTH) {
+            throw new IOException("String is too long");
+        }
+        byte[] bytes = input.readNBytes((int) length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime readDateTime(InputStream input) throws IOException {
+        try {
+            return LocalDateTime.ofEpochSecond(readZigzag(input), 0, ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            throw new IOException("Date is out of range", e);
+        }
+    }
+
+    private static int readInt(InputStream input) throws IOException {
+        long value = readZigzag(input);
+        if (value != (int) value) {
+            throw new IOException("Integer is out of range");
+        }
+        return (int) value;
+    }
+
+    private static long readZigzag(InputStream input) throws IOException {
+        long value = readVarLong(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(input);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -1,12 +1,13 @@
 package ru.yandex.practicum.taskmanagerapp.httpserver;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import ru.yandex.practicum.taskmanagerapp.exception.BadJsonException;
 import ru.yandex.practicum.taskmanagerapp.exception.InconsistentDataException;
 import ru.yandex.practicum.taskmanagerapp.exception.NotFoundException;
 import ru.yandex.practicum.taskmanagerapp.exception.TimeConflictException;
+import ru.yandex.practicum.taskmanagerapp.exception.VersionConflictException;
 import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
 import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
 
 import java.io.IOException;
@@ -14,24 +15,40 @@ import java.util.Optional;
 
 public class TaskHandler extends ItemHandler {
     private final TaskManager taskManager;
+    private final ResponseCache responseCache;
 
-    public TaskHandler(TaskManager taskManager) {
+    public TaskHandler(TaskManager taskManager, ResponseCache responseCache) {
         this.taskManager = taskManager;
+        this.responseCache = responseCache;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        Endpoint endpoint = getEndpoint(exchange);
-        Optional<Integer> optItemId = getItemId(exchange);
-        Gson gson = HttpTaskServer.getGson();
-
+        Router.Match<Endpoint> route = getRoute(exchange);
         try {
-            switch (endpoint) {
+            switch (route.getRoute()) {
                 case GET_ITEM -> {
-                    sendText(exchange, gson.toJson(taskManager.getTask(optItemId.get())));
+                    long version = taskManager.getItemVersion(route.getInt("id"));
+                    Task task = taskManager.getTask(route.getInt("id"));     // view is recorded anyway
+                    if (!sendNotModified(exchange, toETag(version, exchange))) {
+                        sendCachedJson(exchange, responseCache, "/tasks/" + task.getId(),
+                                new long[]{version}, () -> task);
+                    }
                 }
                 case GET_ALL_ITEMS -> {
-                    sendText(exchange, gson.toJson(taskManager.getTaskList()));
+                    long version = taskManager.getVersion(TaskType.TASK);
+                    Optional<PageRequest> pageRequest = getPageRequest(exchange);
+                    if (sendNotModified(exchange, toETag(version, exchange))) {
+                        return;
+                    }
+                    if (pageRequest.isPresent()) {
+                        PageRequest request = pageRequest.get();
+                        sendPage(exchange, responseCache, version,
+                                () -> taskManager.getTasks(request.query(), request.afterId(), request.limit()));
+                    } else {
+                        sendCachedJson(exchange, responseCache, "/tasks", new long[]{version},
+                                taskManager::getTaskList);
+                    }
                 }
                 case ADD_ITEM -> {
                     Task task = deserializeItem(exchange, Task.class);
@@ -39,19 +56,32 @@ public class TaskHandler extends ItemHandler {
                 }
                 case UPDATE_ITEM -> {
                     Task task = deserializeItem(exchange, Task.class);
-                    if (task.getId() != 0 && task.getId() != optItemId.get()) {
+                    if (task.getId() != 0 && task.getId() != route.getInt("id")) {
                         sendBadRequest(exchange);
                     } else {
-                        task.setId(optItemId.get());
-                        taskManager.updateTask(task);
+                        int id = route.getInt("id");
+                        task.setId(id);
+                        long version = getIfMatchVersion(exchange, () -> taskManager.getItemVersion(id));
+                        if (version == ANY_VERSION) {
+                            taskManager.updateTask(task);
+                        } else {
+                            exchange.getResponseHeaders().add("ETag",
+                                    toETag(taskManager.updateTask(task, version), exchange));
+                        }
                         sendOK(exchange);
                     }
                 }
                 case DELETE_ITEM -> {
-                    taskManager.removeTask(optItemId.get());
+                    int id = route.getInt("id");
+                    long version = getIfMatchVersion(exchange, () -> taskManager.getItemVersion(id));
+                    if (version == ANY_VERSION) {
+                        taskManager.removeTask(id);
+                    } else {
+                        taskManager.removeTask(id, version);
+                    }
                     sendOK(exchange);
                 }
-                case UNKNOWN -> {
+                case GET_SUBITEMS, UNKNOWN -> {
                     sendBadRequest(exchange);
                 }
             }
@@ -59,7 +89,9 @@ public class TaskHandler extends ItemHandler {
             sendNotFound(exchange);
         } catch (TimeConflictException | InconsistentDataException e) {
             sendHasOverlaps(exchange);
-        } catch (BadJsonException e) {
+        } catch (VersionConflictException e) {
+            sendPreconditionFailed(exchange);
+        } catch (BadJsonException | IllegalArgumentException e) {
             sendBadRequest(exchange);
         } catch (Exception e) {
             sendInternalError(exchange);
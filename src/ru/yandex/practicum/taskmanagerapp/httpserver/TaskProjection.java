@@ -0,0 +1,52 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Projection of items on the fields requested by ?fields=id,name,status.
+// Items are written by TaskTypeAdapter limited to the fields, containers of items (lists, pages,
+// expanded epics) are written by Gson as usual
+final class TaskProjection {
+    // At most 2^9 projections, so Gson instances are kept for all of them
+    private static final Map<Set<TaskTypeAdapter.Field>, Gson> GSONS = new ConcurrentHashMap<>();
+
+    private final Set<TaskTypeAdapter.Field> fields;
+
+    private TaskProjection(Set<TaskTypeAdapter.Field> fields) {
+        this.fields = fields;
+    }
+
+    // Throws IllegalArgumentException if fields is empty or has an unknown field name
+    static TaskProjection parse(String fields) {
+        Set<TaskTypeAdapter.Field> parsedFields = EnumSet.noneOf(TaskTypeAdapter.Field.class);
+        for (String name : fields.split(",")) {
+            TaskTypeAdapter.Field field = TaskTypeAdapter.getField(name.trim());
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            parsedFields.add(field);
+        }
+        return new TaskProjection(parsedFields);
+    }
+
+    // Same for projections of the same fields, whatever order they have been requested in
+    String getKey() {
+        return fields.stream().map(field -> field.jsonName).collect(Collectors.joining(","));
+    }
+
+    Gson getGson() {
+        return GSONS.computeIfAbsent(fields, key -> HttpTaskServer.getGson().newBuilder()
+                .registerTypeAdapter(Task.class, new TaskTypeAdapter<>(Task.class, key))
+                .registerTypeAdapter(Epic.class, new TaskTypeAdapter<>(Epic.class, key))
+                .registerTypeAdapter(Subtask.class, new TaskTypeAdapter<>(Subtask.class, key))
+                .create());
+    }
+}
@@ -0,0 +1,226 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Hand-written codec of Task, Epic and Subtask with the same JSON as Gson reflective serialization:
+// fields in Gson order (subclass fields first), null values omitted, unknown names and statuses ignored.
+// Items are written through their getters and read into constructors, so a missing duration or
+// subtask list is read as empty instead of null.
+// Fields may be limited to a projection, fields an item does not have are skipped
+public class TaskTypeAdapter<T extends Task> extends TypeAdapter<T> {
+    enum Field {
+        SUBTASK_IDS("subtaskIds"),
+        END_TIME("endTime"),
+        EPIC_ID("epicId"),
+        ID("id"),
+        NAME("name"),
+        STATUS("status"),
+        DESCRIPTION("description"),
+        START_TIME("startTime"),
+        DURATION("duration");
+
+        final String jsonName;
+
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    private static final Map<String, Field> FIELDS_BY_NAME = new HashMap<>();
+    private static final Map<String, TaskStatus> STATUSES_BY_NAME = new HashMap<>();
+
+    static {
+        Arrays.stream(Field.values()).forEach(field -> FIELDS_BY_NAME.put(field.jsonName, field));
+        Arrays.stream(TaskStatus.values()).forEach(status -> STATUSES_BY_NAME.put(status.name(), status));
+    }
+
+    private final Class<T> itemClass;
+    private final Set<Field> fields;
+
+    public TaskTypeAdapter(Class<T> itemClass) {
+        this(itemClass, EnumSet.allOf(Field.class));
+    }
+
+    TaskTypeAdapter(Class<T> itemClass, Set<Field> fields) {
+        this.itemClass = itemClass;
+        this.fields = fields;
+    }
+
+    // Returns null for an unknown name
+    static Field getField(String jsonName) {
+        return FIELDS_BY_NAME.get(jsonName);
+    }
+
+    @Override
+    public void write(JsonWriter out, T item) throws IOException {
+        if (item == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        for (Field field : fields) {
+            switch (field) {
+                case SUBTASK_IDS -> {
+                    if (item instanceof Epic epic) {
+                        out.name(field.jsonName).beginArray();
+                        for (int subtaskId : epic.getSubtaskIds()) {
+                            out.value(subtaskId);
+                        }
+                        out.endArray();
+                    }
+                }
+                case END_TIME -> {
+                    if (item instanceof Epic epic && epic.getEndTime().isPresent()) {
+                        out.name(field.jsonName)
+                                .value(LocalDateTimeTypeAdapter.format(epic.getEndTime().get()));
+                    }
+                }
+                case EPIC_ID -> {
+                    if (item instanceof Subtask subtask) {
+                        out.name(field.jsonName).value(subtask.getEpicId());
+                    }
+                }
+                case ID -> out.name(field.jsonName).value(item.getId());
+                case NAME -> {
+                    if (item.getName() != null) {
+                        out.name(field.jsonName).value(item.getName());
+                    }
+                }
+                case STATUS -> {
+                    if (item.getStatus() != null) {
+                        out.name(field.jsonName).value(item.getStatus().name());
+                    }
+                }
+                case DESCRIPTION -> {
+                    if (item.getDescription() != null) {
+                        out.name(field.jsonName).value(item.getDescription());
+                    }
+                }
+                case START_TIME -> {
+                    if (item.getStartTime().isPresent()) {
+                        out.name(field.jsonName)
+                                .value(LocalDateTimeTypeAdapter.format(item.getStartTime().get()));
+                    }
+                }
+                case DURATION -> {
+                    if (item.getDuration() != null) {
+                        out.name(field.jsonName).value(item.getDuration().toMinutes());
+                    }
+                }
+            }
+        }
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int id = Task.NULL_ID;
+        String name = null;
+        TaskStatus status = null;
+        String description = null;
+        LocalDateTime startTime = null;
+        Duration duration = Duration.ZERO;
+        LocalDateTime endTime = null;
+        List<Integer> subtaskIds = new ArrayList<>();
+        int epicId = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            Field field = FIELDS_BY_NAME.get(in.nextName());
+            if (field == null) {
+                in.skipValue();
+                continue;
+            }
+            switch (field) {
+                case ID -> id = readInt(in, id);
+                case NAME -> name = readString(in);
+                case STATUS -> {
+                    String statusName = readString(in);
+                    status = (statusName == null) ? null : STATUSES_BY_NAME.get(statusName);
+                }
+                case DESCRIPTION -> description = readString(in);
+                case START_TIME -> startTime = readDateTime(in);
+                case DURATION -> {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        duration = Duration.ZERO;
+                    } else {
+                        duration = Duration.ofMinutes(in.nextLong());
+                    }
+                }
+                case END_TIME -> endTime = readDateTime(in);
+                case SUBTASK_IDS -> {
+                    subtaskIds.clear();
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        break;
+                    }
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            subtaskIds.add(null);
+                        } else {
+                            subtaskIds.add(in.nextInt());
+                        }
+                    }
+                    in.endArray();
+                }
+                case EPIC_ID -> epicId = readInt(in, epicId);
+            }
+        }
+        in.endObject();
+
+        if (itemClass == Epic.class) {
+            return itemClass.cast(new Epic(id, name, description, status, startTime, duration, endTime,
+                    subtaskIds));
+        } else if (itemClass == Subtask.class) {
+            return itemClass.cast(new Subtask(id, name, description, status, startTime, duration, epicId));
+        }
+        return itemClass.cast(new Task(id, name, description, status, startTime, duration));
+    }
+
+    // JSON null keeps the value like Gson does for primitive fields
+    private static int readInt(JsonReader in, int value) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return value;
+        }
+        return in.nextInt();
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        } else if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static LocalDateTime readDateTime(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return LocalDateTimeTypeAdapter.parse(in.nextString());
+    }
+}
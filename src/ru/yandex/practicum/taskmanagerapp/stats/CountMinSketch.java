@@ -0,0 +1,58 @@
+package ru.yandex.practicum.taskmanagerapp.stats;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Approximate frequency counter with fixed memory: depth rows of width counters.
+// An estimate is never less than the real count, counters are updated without locks
+class CountMinSketch {
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C};
+
+    private final AtomicIntegerArray counters;
+    private final int depth;
+    private final int width;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length || width < 1) {
+            throw new IllegalArgumentException("Depth must be in [1, " + SEEDS.length + "], width must be positive");
+        }
+        this.depth = depth;
+        this.width = Integer.highestOneBit(width * 2 - 1);
+        counters = new AtomicIntegerArray(depth * this.width);
+    }
+
+    private int indexOf(int row, int key) {
+        int h = key * SEEDS[row];
+        h ^= h >>> 16;
+        return row * width + (h & (width - 1));
+    }
+
+    // Increments counters of the key, returns the new estimate
+    int increment(int key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(indexOf(row, key)));
+        }
+        return estimate;
+    }
+
+    int estimate(int key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(indexOf(row, key)));
+        }
+        return estimate;
+    }
+
+    // Ages all counters, so old views weigh less than recent ones
+    void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+}
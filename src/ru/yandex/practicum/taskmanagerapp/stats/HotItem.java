@@ -0,0 +1,5 @@
+package ru.yandex.practicum.taskmanagerapp.stats;
+
+// Item id and estimated number of recent views
+public record HotItem(int id, int views) {
+}
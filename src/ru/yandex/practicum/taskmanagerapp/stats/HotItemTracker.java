@@ -0,0 +1,128 @@
+package ru.yandex.practicum.taskmanagerapp.stats;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tracks the most viewed items with fixed memory whatever the number of items.
+// View counts are estimated by a count-min sketch, the top topSize items are kept as candidates.
+// A view of a candidate or of a rarely viewed item takes no lock, the lock is taken only
+// when an item may displace the least viewed candidate, which is found by a min-heap of candidates.
+// Estimates grow without the lock, so a heap key may be lower than the current estimate; the top
+// is re-keyed until its key is current, then no other candidate has a lower estimate.
+// Every decayPeriod views all counts are halved, so the statistics follow recent views.
+public class HotItemTracker {
+    private static final int SKETCH_DEPTH = 4;
+
+    private final CountMinSketch sketch;
+    private final int topSize;
+    private final int decayPeriod;
+    private final Set<Integer> candidates = ConcurrentHashMap.newKeySet();
+    private final PriorityQueue<Candidate> coldestFirst = new PriorityQueue<>(
+            Comparator.comparingInt(Candidate::estimate).thenComparingInt(Candidate::id));  // guarded by this
+    private final AtomicInteger views = new AtomicInteger();
+    private volatile int admissionThreshold = 0;
+
+    // estimate is not greater than the current estimate of the item
+    private record Candidate(int id, int estimate) {
+    }
+
+    public HotItemTracker(int topSize, int sketchWidth, int decayPeriod) {
+        if (topSize < 1 || decayPeriod < 1) {
+            throw new IllegalArgumentException("Top size and decay period must be positive");
+        }
+        this.sketch = new CountMinSketch(SKETCH_DEPTH, sketchWidth);
+        this.topSize = topSize;
+        this.decayPeriod = decayPeriod;
+    }
+
+    public void record(int id) {
+        int estimate = sketch.increment(id);
+        if (!candidates.contains(id) && (candidates.size() < topSize || estimate > admissionThreshold)) {
+            admit(id);
+        }
+        if (views.incrementAndGet() >= decayPeriod) {
+            decay();
+        }
+    }
+
+    private synchronized void admit(int id) {
+        if (candidates.contains(id)) {
+            return;
+        }
+        int estimate = sketch.estimate(id);    // may have been halved since the view
+        if (candidates.size() >= topSize) {
+            Candidate coldest = getColdest();
+            if (coldest.estimate() >= estimate) {
+                admissionThreshold = coldest.estimate();
+                return;
+            }
+            coldestFirst.poll();
+            candidates.remove(coldest.id());
+        }
+        candidates.add(id);
+        coldestFirst.add(new Candidate(id, estimate));
+        updateAdmissionThreshold();
+    }
+
+    // Least viewed candidate, the heap top is re-keyed until its key is current
+    private Candidate getColdest() {
+        while (true) {
+            Candidate top = coldestFirst.peek();
+            int estimate = sketch.estimate(top.id());
+            if (estimate == top.estimate()) {
+                return top;
+            }
+            coldestFirst.poll();
+            coldestFirst.add(new Candidate(top.id(), estimate));
+        }
+    }
+
+    // Any item is admitted while there are free places
+    private void updateAdmissionThreshold() {
+        admissionThreshold = (candidates.size() < topSize) ? 0 : getColdest().estimate();
+    }
+
+    // Evicts a removed item, so its place is taken by the next viewed item
+    public synchronized void remove(int id) {
+        if (candidates.remove(id)) {
+            coldestFirst.removeIf(candidate -> candidate.id() == id);
+            updateAdmissionThreshold();
+        }
+    }
+
+    private synchronized void decay() {
+        if (views.get() < decayPeriod) {    // another thread has already done it
+            return;
+        }
+        views.set(0);
+        sketch.halve();
+        admissionThreshold = admissionThreshold >>> 1;
+        // halving keeps the keys not greater than the estimates
+        List<Candidate> halved = coldestFirst.stream()
+                .map(candidate -> new Candidate(candidate.id(), candidate.estimate() >>> 1))
+                .toList();
+        coldestFirst.clear();
+        coldestFirst.addAll(halved);
+    }
+
+    // Candidates sorted by estimated views, most viewed first
+    public List<HotItem> getHotItems() {
+        return candidates.stream()
+                .map(id -> new HotItem(id, sketch.estimate(id)))
+                .filter(item -> item.views() > 0)
+                .sorted(Comparator.comparingInt(HotItem::views).reversed().thenComparingInt(HotItem::id))
+                .toList();
+    }
+
+    public synchronized void clear() {
+        candidates.clear();
+        coldestFirst.clear();
+        sketch.clear();
+        views.set(0);
+        admissionThreshold = 0;
+    }
+}
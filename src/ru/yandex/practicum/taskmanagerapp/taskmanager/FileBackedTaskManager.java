@@ -10,6 +10,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
@@ -17,9 +18,17 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     private static final String CSVFILE_HEADER =
             "id,type,status,name,description,start time,duration,epic";
 
+    private final HistoryLog historyLog;
+
     public FileBackedTaskManager(File dataFile, HistoryManager historyManager) {
+        this(dataFile, null, historyManager);
+    }
+
+    // History is persisted into historyFile if it is not null
+    public FileBackedTaskManager(File dataFile, File historyFile, HistoryManager historyManager) {
         super(historyManager);
         this.dataFile = dataFile;
+        this.historyLog = (historyFile == null) ? null : new HistoryLog(historyFile);
     }
 
     private void save() {
@@ -66,7 +75,15 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     static FileBackedTaskManager loadFromFile(File file, HistoryManager historyManager) {
-        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, historyManager);
+        return loadFromFile(file, null, historyManager);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, File historyFile) {
+        return loadFromFile(file, historyFile, Managers.getDefaultHistory());
+    }
+
+    static FileBackedTaskManager loadFromFile(File file, File historyFile, HistoryManager historyManager) {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, historyFile, historyManager);
 
         try (FileReader reader = new FileReader(file); BufferedReader br = new BufferedReader(reader)) {
             ArrayList<Task> tasks = new ArrayList<>();
@@ -90,6 +107,9 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 epics.get(subtask.getEpicId()).addSubtask(subtask.getId());
             }
             taskManager.load(tasks, new ArrayList<>(epics.values()), subtasks);
+            if (taskManager.historyLog != null) {
+                taskManager.restoreHistory(taskManager.historyLog.read());
+            }
             return taskManager;
         } catch (IOException e) {
             throw new ManagerLoadException("Data file load error: " + e.getMessage());
@@ -154,37 +174,101 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     @Override
     public void clear() {
         super.clear();
+        if (historyLog != null) {
+            historyLog.clear();
+        }
         save();
     }
 
     @Override
     public void clearTasks() {
         super.clearTasks();
+        forgetRemovedViews();
         save();
     }
 
     @Override
     public void clearEpics() {
         super.clearEpics();
+        forgetRemovedViews();
         save();
     }
 
     @Override
     public void clearSubtasks() {
         super.clearSubtasks();
+        forgetRemovedViews();
         save();
     }
 
+    @Override
+    public Task getTask(int id) {
+        Task task = super.getTask(id);
+        logView(id);
+        return task;
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        Epic epic = super.getEpic(id);
+        logView(id);
+        return epic;
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        Subtask subtask = super.getSubtask(id);
+        logView(id);
+        return subtask;
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId, boolean recordViews) {
+        List<Subtask> subtasks = super.getEpicSubtasks(epicId, recordViews);
+        if (recordViews) {
+            subtasks.forEach(subtask -> logView(subtask.getId()));
+        }
+        return subtasks;
+    }
+
+    private void logView(int id) {
+        if (historyLog != null) {
+            historyLog.append(id);
+        }
+    }
+
+    private void forgetView(int id) {
+        if (historyLog != null) {
+            historyLog.remove(id);
+        }
+    }
+
+    // Drops views of all removed items from the history file on the next compaction
+    private void forgetRemovedViews() {
+        if (historyLog != null) {
+            historyLog.removeIf(id -> !contains(id));
+        }
+    }
+
+    // Stops background compaction of history file
+    public void closeHistory() {
+        if (historyLog != null) {
+            historyLog.close();
+        }
+    }
+
     @Override
     public Task removeTask(int id) {
         Task task = super.removeTask(id);
+        forgetView(id);
         save();
         return task;
     }
 
     @Override
     public Epic removeEpic(int id) {
-        Epic epic = super.removeEpic(id);
+        Epic epic = super.removeEpic(id);     // subtasks are removed by removeSubtask
+        forgetView(id);
         save();
         return epic;
     }
@@ -192,10 +276,30 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     @Override
     public Subtask removeSubtask(int id) {
         Subtask subtask = super.removeSubtask(id);
+        forgetView(id);
         save();
         return subtask;
     }
 
+    @Override
+    public List<Integer> applyBatch(TaskBatch batch) {
+        List<Integer> ids = super.applyBatch(batch);
+        forgetRemovedViews();
+        save();
+        return ids;
+    }
+
+    // Data is saved once for all operations
+    @Override
+    public List<TaskBatch.Result> applyEach(TaskBatch batch) {
+        List<TaskBatch.Result> results = super.applyEach(batch);
+        if (results.stream().anyMatch(TaskBatch.Result::isSuccess)) {
+            forgetRemovedViews();
+            save();
+        }
+        return results;
+    }
+
     public static void main(String[] args) {
         File file = new File("data.csv");
         TaskManager tm1 = new FileBackedTaskManager(file, Managers.getDefaultHistory());
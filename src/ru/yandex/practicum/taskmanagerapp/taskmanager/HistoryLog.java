@@ -0,0 +1,190 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.exception.ManagerLoadException;
+import ru.yandex.practicum.taskmanagerapp.exception.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+// Append-only log of item views: every record is item id (4 bytes) and view sequence number (8 bytes).
+// The log is compacted in background when it gets twice as long as the history it describes:
+// the history snapshot is written into a new file, then records appended meanwhile are copied after it.
+// The snapshot is taken from the ids the log has seen, not from the history manager, which is changed by
+// request threads and may keep several sessions. Removed items are forgotten, so compaction drops their views.
+class HistoryLog {
+    private static final int RECORD_SIZE = Integer.BYTES + Long.BYTES;
+    private static final long MIN_COMPACTION_RECORDS = 1024;
+
+    private final Path path;
+    private final SequencedSet<Integer> viewOrder = new LinkedHashSet<>();  // ids by their last view
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "history-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    private FileChannel channel;
+    private long nextSequence = 0;
+    private long records = 0;
+    private long compactionThreshold = MIN_COMPACTION_RECORDS;
+    private boolean isCompacting = false;
+
+    HistoryLog(File file) {
+        this.path = file.toPath();
+    }
+
+    // Reads ids of viewed items in view order, the last view of an item wins.
+    // Must be called before the first append
+    synchronized List<Integer> read() {
+        if (!Files.exists(path)) {
+            return List.of();
+        }
+        Map<Integer, Long> lastViews = new HashMap<>();
+        try (FileChannel input = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+            boolean isEndOfFile = false;
+            while (!isEndOfFile) {      // incomplete record at the end of the log is ignored
+                isEndOfFile = input.read(buffer) < 0;
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    int id = buffer.getInt();
+                    long sequence = buffer.getLong();
+                    lastViews.put(id, sequence);
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                    records++;
+                }
+                buffer.compact();
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException("History file load error: " + e.getMessage());
+        }
+        compactionThreshold = Math.max(MIN_COMPACTION_RECORDS, 2L * lastViews.size());
+
+        List<Integer> ids = new ArrayList<>(lastViews.keySet());
+        ids.sort(Comparator.comparing(lastViews::get));
+        viewOrder.addAll(ids);
+        return ids;
+    }
+
+    synchronized void append(int id) {
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            record.clear();
+            record.putInt(id).putLong(nextSequence++).flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("History file save error: " + e.getMessage());
+        }
+        viewOrder.remove(id);
+        viewOrder.add(id);
+        if (++records >= compactionThreshold && !isCompacting && !compactor.isShutdown()) {
+            isCompacting = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    // Forgets a removed item, its views are dropped by the next compaction
+    synchronized void remove(int id) {
+        viewOrder.remove(id);
+    }
+
+    synchronized void removeIf(IntPredicate isRemoved) {
+        viewOrder.removeIf(isRemoved::test);
+    }
+
+    synchronized void clear() {
+        viewOrder.clear();
+    }
+
+    private void compact() {
+        Path compactedPath = path.resolveSibling(path.getFileName() + ".compacted");
+        try {
+            long snapshotPosition;
+            long snapshotSequence;
+            List<Integer> history;
+            synchronized (this) {
+                history = new ArrayList<>(viewOrder);
+                snapshotPosition = channel.size();
+                snapshotSequence = nextSequence;
+            }
+
+            try (FileChannel output = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * Math.max(1, history.size()));
+                long sequence = snapshotSequence - history.size();
+                for (int id : history) {
+                    buffer.putInt(id).putLong(sequence++);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+
+                synchronized (this) {
+                    if (channel == null) {      // log has been closed
+                        Files.delete(compactedPath);
+                        return;
+                    }
+                    // records appended after the snapshot
+                    long tailSize = channel.size() - snapshotPosition;
+                    try (FileChannel input = FileChannel.open(path, StandardOpenOption.READ)) {
+                        input.transferTo(snapshotPosition, tailSize, output);
+                    }
+                    output.force(false);
+                    channel.close();
+                    channel = null;
+                    Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    records = history.size() + tailSize / RECORD_SIZE;
+                    compactionThreshold = Math.max(MIN_COMPACTION_RECORDS, 2L * history.size());
+                    isCompacting = false;
+                }
+            }
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(compactedPath);
+            } catch (IOException ignored) {
+                // the next compaction truncates it
+            }
+            synchronized (this) {
+                isCompacting = false;
+                compactionThreshold = records * 2;  // postpone the next attempt
+            }
+        }
+    }
+
+    // Waits for running compaction and closes the log
+    void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+            synchronized (this) {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("History file save error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
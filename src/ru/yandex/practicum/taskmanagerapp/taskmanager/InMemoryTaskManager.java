@@ -3,26 +3,29 @@ package ru.yandex.practicum.taskmanagerapp.taskmanager;
 import ru.yandex.practicum.taskmanagerapp.exception.*;
 import ru.yandex.practicum.taskmanagerapp.exception.NullItemException;
 import ru.yandex.practicum.taskmanagerapp.history.HistoryManager;
+import ru.yandex.practicum.taskmanagerapp.stats.HotItem;
+import ru.yandex.practicum.taskmanagerapp.stats.HotItemTracker;
 import ru.yandex.practicum.taskmanagerapp.task.Epic;
 import ru.yandex.practicum.taskmanagerapp.task.Subtask;
 import ru.yandex.practicum.taskmanagerapp.task.Task;
 import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
-import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
-    private final HashMap<Integer, Task> tasks = new HashMap<>();
-    private final HashMap<Integer, Epic> epics = new HashMap<>();
-    private final HashMap<Integer, Subtask> subtasks = new HashMap<>();
+    // Items are ordered by id for paged queries
+    private final TreeMap<Integer, Task> tasks = new TreeMap<>();
+    private final TreeMap<Integer, Epic> epics = new TreeMap<>();
+    private final TreeMap<Integer, Subtask> subtasks = new TreeMap<>();
 
-    private static final int START_ID = 100;
-    private int lastId = START_ID;
+    static final int START_ID = 100;
+    private int lastId;
 
     private final HistoryManager historyManager;
 
@@ -33,19 +36,83 @@ public class InMemoryTaskManager implements TaskManager {
                             .orElseThrow(() -> new java.lang.NullPointerException("Start time attribute is null"))
             )
             );
-    // Structure stores 1-hour intervals and task ids
-    private final HashMap<Long, HashSet<Integer>> taskSchedule = new HashMap<>();
+    // Structure stores 1-hour intervals and tasks, 2nd implementation of time conflict check
+    private final TaskSchedule taskSchedule;
+    private final int idStep;
+
+    // Statistics of item views
+    private static final int HOT_ITEMS_SIZE = 20;
+    private static final int HOT_ITEMS_SKETCH_WIDTH = 4096;
+    private static final int HOT_ITEMS_DECAY_PERIOD = 100_000;
+    private final HotItemTracker hotItemTracker;
+
+    // Every change of an item is published to the event bus (shared by shards), the event id becomes
+    // the version of the changed item and of its collection for conditional requests
+    private static final int EVENT_LOG_SIZE = 4096;
+    private final TaskEventBus eventBus;
+    private final EnumMap<TaskType, Long> collectionVersions = new EnumMap<>(TaskType.class);
+    private final HashMap<Integer, Long> itemVersions = new HashMap<>();
 
     public InMemoryTaskManager() {
-        this.historyManager = Managers.getDefaultHistory();
+        this(Managers.getDefaultHistory());
     }
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new TaskSchedule(), createHotItemTracker(), createEventBus(), START_ID, 1);
+    }
+
+    // Shard constructor: ids are generated as firstId, firstId + idStep, ... the time schedule,
+    // view statistics and event bus may be shared with other managers
+    InMemoryTaskManager(HistoryManager historyManager, TaskSchedule taskSchedule, HotItemTracker hotItemTracker,
+                        TaskEventBus eventBus, int firstId, int idStep) {
         this.historyManager = historyManager;
+        this.taskSchedule = taskSchedule;
+        this.hotItemTracker = hotItemTracker;
+        this.eventBus = eventBus;
+        this.lastId = firstId;
+        this.idStep = idStep;
+    }
+
+    static HotItemTracker createHotItemTracker() {
+        return new HotItemTracker(HOT_ITEMS_SIZE, HOT_ITEMS_SKETCH_WIDTH, HOT_ITEMS_DECAY_PERIOD);
+    }
+
+    // Versions of a run start above those of the previous runs, unless they have taken more than 1024 per
+    // millisecond on average, so a version kept by a client is not mistaken for one of the current run
+    static TaskEventBus createEventBus() {
+        return new TaskEventBus(EVENT_LOG_SIZE, System.currentTimeMillis() << 10);
+    }
+
+    // Called after the item has been stored
+    private void touch(TaskType type, int id) {
+        TaskEvent.Kind kind = itemVersions.containsKey(id) ? TaskEvent.Kind.UPDATED : TaskEvent.Kind.CREATED;
+        Task item = switch (type) {
+            case TASK -> tasks.get(id);
+            case EPIC -> copyEpic(epics.get(id));   // subtask list of a stored epic is changed in place
+            case SUBTASK -> subtasks.get(id);
+        };
+        long version = eventBus.publish(kind, type, id, item);
+        collectionVersions.put(type, version);
+        itemVersions.put(id, version);
+    }
+
+    private void touchRemoved(TaskType type, Collection<Integer> ids) {
+        for (int id : ids) {
+            collectionVersions.put(type, eventBus.publish(TaskEvent.Kind.DELETED, type, id, null));
+            itemVersions.remove(id);
+        }
+    }
+
+    private static Epic copyEpic(Epic epic) {
+        return new Epic(epic.getId(), epic.getName(), epic.getDescription(), epic.getStatus(),
+                epic.getStartTime().orElse(null), epic.getDuration(), epic.getEndTime().orElse(null),
+                epic.getSubtaskIds());
     }
 
     private int generateId() {
-        return lastId++;
+        int id = lastId;
+        lastId += idStep;
+        return id;
     }
 
     @Override
@@ -53,15 +120,19 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null) {
             throw new NullItemException();
         }
-        if (isTimeConflictQ(task)) {
+        if (taskSchedule.isConflict(task)) {
             throw new TimeConflictException();
         }
         int id = generateId();
         task.setId(id);
+        if (!taskSchedule.tryAdd(task)) {    // shared schedule has been changed by another manager
+            task.setId(Task.NULL_ID);
+            throw new TimeConflictException();
+        }
         tasks.put(id, task);
+        touch(TaskType.TASK, id);
         if (task.getStartTime().isPresent()) {
             tasksSortedByStartTime.add(task);
-            addToTaskShedule(task);
         }
         return id;
     }
@@ -77,6 +148,7 @@ public class InMemoryTaskManager implements TaskManager {
         int id = generateId();
         epic.setId(id);
         epics.put(id, epic);
+        touch(TaskType.EPIC, id);
         return id;
     }
 
@@ -88,17 +160,21 @@ public class InMemoryTaskManager implements TaskManager {
         if (!epics.containsKey(subtask.getEpicId())) {
             throw new InconsistentDataException();
         }
-        if (isTimeConflictQ(subtask)) {
+        if (taskSchedule.isConflict(subtask)) {
             throw new TimeConflictException();
         }
         int id = generateId();
         subtask.setId(id);
+        if (!taskSchedule.tryAdd(subtask)) {
+            subtask.setId(Task.NULL_ID);
+            throw new TimeConflictException();
+        }
         subtasks.put(id, subtask);
+        touch(TaskType.SUBTASK, id);
         epics.get(subtask.getEpicId()).addSubtask(id);
         updateEpicInternalState(epics.get(subtask.getEpicId()));
         if (subtask.getStartTime().isPresent()) {
             tasksSortedByStartTime.add(subtask);
-            addToTaskShedule(subtask);
         }
         return id;
     }
@@ -112,18 +188,18 @@ public class InMemoryTaskManager implements TaskManager {
         if (oldTask == null) {
             throw new NotFoundException();
         }
-        removeFromTaskShedule(oldTask);
-        if (isTimeConflictQ(task)) {
-            addToTaskShedule(oldTask);
+        if (!taskSchedule.tryReplace(oldTask, task)) {
             throw new TimeConflictException();
         }
 
         tasks.replace(task.getId(), task);
+        touch(TaskType.TASK, task.getId());
 
-        tasksSortedByStartTime.remove(oldTask);
+        if (oldTask.getStartTime().isPresent()) {
+            tasksSortedByStartTime.remove(oldTask);
+        }
         if (task.getStartTime().isPresent()) {
             tasksSortedByStartTime.add(task);
-            addToTaskShedule(task);
         }
 
         return task;
@@ -150,23 +226,60 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException();
         }
 
-        removeFromTaskShedule(oldSubtask);
-        if (isTimeConflictQ(subtask)) {
-            addToTaskShedule(oldSubtask);
+        if (!taskSchedule.tryReplace(oldSubtask, subtask)) {
             throw new TimeConflictException();
         }
 
         subtasks.replace(subtask.getId(), subtask);
+        touch(TaskType.SUBTASK, subtask.getId());
         updateEpicInternalState(epics.get(subtask.getEpicId()));
 
-        tasksSortedByStartTime.remove(oldSubtask);
+        if (oldSubtask.getStartTime().isPresent()) {
+            tasksSortedByStartTime.remove(oldSubtask);
+        }
         if (subtask.getStartTime().isPresent()) {
             tasksSortedByStartTime.add(subtask);
-            addToTaskShedule(subtask);
         }
         return subtask;
     }
 
+    // Conditional methods check the version and call the plain ones, so subclasses need not override them
+    @Override
+    public long updateTask(Task task, long expectedVersion) {
+        if (task == null) {
+            throw new NullItemException();
+        }
+        requireVersion(task.getId(), expectedVersion);
+        updateTask(task);
+        return itemVersions.get(task.getId());
+    }
+
+    @Override
+    public long updateEpic(Epic epic, long expectedVersion) {
+        if (epic == null) {
+            throw new NullItemException();
+        }
+        requireVersion(epic.getId(), expectedVersion);
+        updateEpic(epic);
+        return itemVersions.get(epic.getId());
+    }
+
+    @Override
+    public long updateSubtask(Subtask subtask, long expectedVersion) {
+        if (subtask == null) {
+            throw new NullItemException();
+        }
+        requireVersion(subtask.getId(), expectedVersion);
+        updateSubtask(subtask);
+        return itemVersions.get(subtask.getId());
+    }
+
+    private void requireVersion(int id, long expectedVersion) {
+        if (getItemVersion(id) != expectedVersion) {
+            throw new VersionConflictException();
+        }
+    }
+
     @Override
     public List<Task> getTaskList() {
         return new ArrayList<>(tasks.values());
@@ -184,46 +297,106 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Subtask> getEpicSubtasks(int epicId) {
+        return getEpicSubtasks(epicId, false);
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId, boolean recordViews) {
         if (!epics.containsKey(epicId)) {
             throw new NotFoundException();
         }
 
         ArrayList<Subtask> subtasksOfEpic = new ArrayList<>();
         epics.get(epicId).getSubtaskIds().stream().map(subtasks::get).forEach(subtasksOfEpic::add);
+        if (recordViews) {
+            subtasksOfEpic.forEach(subtask -> {
+                historyManager.add(subtask);
+                hotItemTracker.record(subtask.getId());
+            });
+        }
 
         return subtasksOfEpic;
     }
 
+    @Override
+    public Page<Task> getTasks(TaskQuery query, int afterId, int limit) {
+        return getPage(tasks.tailMap(afterId, false).values(), query, limit);
+    }
+
+    @Override
+    public Page<Epic> getEpics(TaskQuery query, int afterId, int limit) {
+        return getPage(epics.tailMap(afterId, false).values(), query, limit);
+    }
+
+    // Subtasks of an epic are looked up by the epic's subtask list instead of scanning all subtasks
+    @Override
+    public Page<Subtask> getSubtasks(TaskQuery query, int afterId, int limit) {
+        if (query.epicId() == null) {
+            return getPage(subtasks.tailMap(afterId, false).values(), query, limit);
+        }
+        Epic epic = epics.get(query.epicId());
+        if (epic == null) {
+            return getPage(List.of(), query, limit);
+        }
+        List<Subtask> epicSubtasks = epic.getSubtaskIds().stream()
+                .filter(id -> id > afterId)
+                .sorted()
+                .map(subtasks::get)
+                .toList();
+        return getPage(epicSubtasks, query, limit);
+    }
+
+    private static <T extends Task> Page<T> getPage(Iterable<T> items, TaskQuery query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        List<T> page = new ArrayList<>();
+        for (T item : items) {
+            if (!query.matches(item)) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new Page<>(page, page.getLast().getId());
+            }
+            page.add(item);
+        }
+        return new Page<>(page, Task.NULL_ID);
+    }
+
     @Override
     public void clear() {
         clearTasks();
         clearEpics();
+        hotItemTracker.clear();
     }
 
     @Override
     public void clearTasks() {
-        tasks.keySet().forEach(historyManager::remove);
+        tasks.keySet().forEach(this::forget);
         tasks.values().stream()
                 .filter(task -> task.getStartTime().isPresent())
                 .peek(tasksSortedByStartTime::remove)
-                .forEach(this::removeFromTaskShedule);
+                .forEach(taskSchedule::remove);
+        touchRemoved(TaskType.TASK, tasks.keySet());
         tasks.clear();
     }
 
     @Override
     public void clearEpics() {
         clearSubtasks();
-        epics.keySet().forEach(historyManager::remove);
+        epics.keySet().forEach(this::forget);
+        touchRemoved(TaskType.EPIC, epics.keySet());
         epics.clear();
     }
 
     @Override
     public void clearSubtasks() {
-        subtasks.keySet().forEach(historyManager::remove);
+        subtasks.keySet().forEach(this::forget);
         subtasks.values().stream()
                 .filter(subtask -> subtask.getStartTime().isPresent())
                 .peek(tasksSortedByStartTime::remove)
-                .forEach(this::removeFromTaskShedule);
+                .forEach(taskSchedule::remove);
+        touchRemoved(TaskType.SUBTASK, subtasks.keySet());
         subtasks.clear();
         epics.values().stream()
                 .peek(Epic::clearSubtasks)
@@ -237,6 +410,7 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException();
         }
         historyManager.add(task);
+        hotItemTracker.record(id);
         return task;
     }
 
@@ -247,6 +421,7 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException();
         }
         historyManager.add(epic);
+        hotItemTracker.record(id);
         return epic;
     }
 
@@ -257,17 +432,18 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException();
         }
         historyManager.add(subtask);
+        hotItemTracker.record(id);
         return subtask;
     }
 
     @Override
     public Task removeTask(int id) {
-        historyManager.remove(id);
+        forget(id);
         Task task = tasks.remove(id);
         if (task == null)
             throw new NotFoundException();
-        tasksSortedByStartTime.remove(task);
-        removeFromTaskShedule(task);
+        touchRemoved(TaskType.TASK, List.of(id));
+        removeFromTimeStructures(task);
         return task;
     }
 
@@ -277,7 +453,8 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException();
         }
         epics.get(id).getSubtaskIds().forEach(this::removeSubtask);
-        historyManager.remove(id);
+        forget(id);
+        touchRemoved(TaskType.EPIC, List.of(id));
         return epics.remove(id);
     }
 
@@ -290,12 +467,287 @@ public class InMemoryTaskManager implements TaskManager {
         Epic bindingEpic = epics.get(subtask.getEpicId());
         bindingEpic.removeSubtask(id);
         updateEpicInternalState(bindingEpic);
-        tasksSortedByStartTime.remove(subtask);
-        removeFromTaskShedule(subtask);
-        historyManager.remove(id);
+        removeFromTimeStructures(subtask);
+        forget(id);
+        touchRemoved(TaskType.SUBTASK, List.of(id));
         return subtasks.remove(id);
     }
 
+    @Override
+    public Task removeTask(int id, long expectedVersion) {
+        requireVersion(id, expectedVersion);
+        return removeTask(id);
+    }
+
+    @Override
+    public Epic removeEpic(int id, long expectedVersion) {
+        requireVersion(id, expectedVersion);
+        return removeEpic(id);
+    }
+
+    @Override
+    public Subtask removeSubtask(int id, long expectedVersion) {
+        requireVersion(id, expectedVersion);
+        return removeSubtask(id);
+    }
+
+    /// //////////////////////////////////
+    /// batch operations
+    // Batch is validated as a whole before any change: time conflicts are checked once for the final state
+    // of all added and updated items, touched epics are recalculated once after all changes
+    @Override
+    public List<Integer> applyBatch(TaskBatch batch) {
+        if (batch == null) {
+            throw new NullItemException();
+        }
+        return applyOperations(batch.getOperations());
+    }
+
+    // Every operation is validated and applied as a separate batch
+    @Override
+    public List<TaskBatch.Result> applyEach(TaskBatch batch) {
+        if (batch == null) {
+            throw new NullItemException();
+        }
+        return TaskBatch.applyEach(batch.getOperations(), operation -> applyOperations(List.of(operation)).getFirst());
+    }
+
+    private List<Integer> applyOperations(List<TaskBatch.Operation> operations) {
+        synchronized (taskSchedule) {   // schedule may be shared with other managers
+            Map<Integer, BatchChange> changes = new HashMap<>();
+            validateOperations(operations, index -> true, changes);
+            validateSchedule(changes);
+
+            List<Integer> results = new ArrayList<>(operations.size());
+            Set<Integer> touchedEpicIds = new LinkedHashSet<>();
+            for (TaskBatch.Operation operation : operations) {
+                results.add(applyOperation(operation, results, touchedEpicIds));
+            }
+            updateTouchedEpics(touchedEpicIds);
+            return results;
+        }
+    }
+
+    // Final state of a task or subtask touched by a batch, null task means removal
+    record BatchChange(Task task, int operationIndex) {
+    }
+
+    // Validates the operations of the batch selected by isOwn against the items of this manager and puts
+    // their changes into changes. Operations of a batch spread over several managers are validated by each
+    // of them; references and operation indices are those of the whole batch
+    void validateOperations(List<TaskBatch.Operation> operations, IntPredicate isOwn,
+                            Map<Integer, BatchChange> changes) {
+        Set<Integer> removedIds = new HashSet<>();
+        Set<Integer> addedEpicRefs = new HashSet<>();
+        Map<Integer, List<Integer>> addedSubtaskRefs = new HashMap<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            if (!isOwn.test(i)) {
+                continue;
+            }
+            final int operationIndex = i;
+            TaskBatch.Operation operation = operations.get(i);
+            Task item = operation.item();
+            int id = operation.targetId();
+            int ref = TaskBatch.toReference(i);
+            try {
+                switch (operation.type()) {
+                    case ADD_TASK -> {
+                        requireItem(item);
+                        changes.put(ref, new BatchChange(item, i));
+                    }
+                    case ADD_EPIC -> {
+                        requireItem(item);
+                        if (!((Epic) item).getSubtaskIds().isEmpty()) {
+                            throw new InconsistentDataException();
+                        }
+                        addedEpicRefs.add(ref);
+                    }
+                    case ADD_SUBTASK -> {
+                        requireItem(item);
+                        int epicId = ((Subtask) item).getEpicId();
+                        if (!(epics.containsKey(epicId) || addedEpicRefs.contains(epicId))
+                                || removedIds.contains(epicId)) {
+                            throw new InconsistentDataException();
+                        }
+                        changes.put(ref, new BatchChange(item, i));
+                        addedSubtaskRefs.computeIfAbsent(epicId, k -> new ArrayList<>()).add(ref);
+                    }
+                    case UPDATE_TASK -> {
+                        requireItem(item);
+                        requireExisting(tasks, id, removedIds);
+                        changes.put(id, new BatchChange(item, i));
+                    }
+                    case UPDATE_EPIC -> {
+                        requireItem(item);
+                        requireExisting(epics, id, removedIds);
+                    }
+                    case UPDATE_SUBTASK -> {
+                        requireItem(item);
+                        requireExisting(subtasks, id, removedIds);
+                        if (subtasks.get(id).getEpicId() != ((Subtask) item).getEpicId()) {
+                            throw new InconsistentDataException();
+                        }
+                        changes.put(id, new BatchChange(item, i));
+                    }
+                    case REMOVE_TASK, REMOVE_SUBTASK -> {
+                        requireExisting(operation.type() == TaskBatch.OperationType.REMOVE_TASK ? tasks : subtasks,
+                                id, removedIds);
+                        removedIds.add(id);
+                        changes.put(id, new BatchChange(null, i));
+                    }
+                    case REMOVE_EPIC -> {
+                        requireExisting(epics, id, removedIds);
+                        removedIds.add(id);
+                        epics.get(id).getSubtaskIds().forEach(subtaskId -> {
+                            removedIds.add(subtaskId);
+                            changes.put(subtaskId, new BatchChange(null, operationIndex));
+                        });
+                        addedSubtaskRefs.getOrDefault(id, List.of()).forEach(subtaskRef -> {
+                            removedIds.add(subtaskRef);
+                            changes.put(subtaskRef, new BatchChange(null, operationIndex));
+                        });
+                    }
+                }
+            } catch (ManagerException | InconsistentDataException e) {
+                throw new BatchException(i, e);
+            }
+        }
+    }
+
+    // Checks time conflicts of the changes of a whole batch, the caller holds the schedule lock
+    void validateSchedule(Map<Integer, BatchChange> changes) {
+        // items replaced or removed by the batch do not take part in conflict check
+        Set<Integer> ignoredIds = new HashSet<>(changes.keySet());
+        Map<Task, Integer> timedChanges = new IdentityHashMap<>();
+        changes.values().stream()
+                .filter(change -> change.task() != null && change.task().getStartTime().isPresent())
+                .forEach(change -> timedChanges.put(change.task(), change.operationIndex()));
+
+        // conflicts with existing items
+        timedChanges.keySet().stream()
+                .filter(task -> taskSchedule.isConflict(task, ignoredIds))
+                .mapToInt(timedChanges::get)
+                .min()
+                .ifPresent(index -> {
+                    throw new BatchException(index, new TimeConflictException());
+                });
+
+        // conflicts inside the batch, the later operation of a conflicting pair is reported
+        TimeConflictValidator.findConflicts(timedChanges.keySet()).stream()
+                .mapToInt(conflict -> Math.max(timedChanges.get(conflict.first()), timedChanges.get(conflict.second())))
+                .min()
+                .ifPresent(index -> {
+                    throw new BatchException(index, new TimeConflictException());
+                });
+    }
+
+    private static void requireItem(Task item) {
+        if (item == null) {
+            throw new NullItemException();
+        }
+    }
+
+    private static void requireExisting(Map<Integer, ? extends Task> items, int id, Set<Integer> removedIds) {
+        if (!items.containsKey(id) || removedIds.contains(id)) {
+            throw new NotFoundException();
+        }
+    }
+
+    // Operation is applied without checks, the batch has been validated already.
+    // results holds ids of the preceding operations of the whole batch
+    int applyOperation(TaskBatch.Operation operation, List<Integer> results, Set<Integer> touchedEpicIds) {
+        Task item = operation.item();
+        int id = operation.targetId();
+        switch (operation.type()) {
+            case ADD_TASK -> {
+                id = generateId();
+                item.setId(id);
+                tasks.put(id, item);
+                touch(TaskType.TASK, id);
+                addToTimeStructures(item);
+            }
+            case ADD_EPIC -> {
+                id = generateId();
+                item.setId(id);
+                epics.put(id, (Epic) item);
+                touch(TaskType.EPIC, id);
+            }
+            case ADD_SUBTASK -> {
+                Subtask subtask = (Subtask) item;
+                if (TaskBatch.isReference(subtask.getEpicId())) {
+                    subtask.setEpicId(results.get(TaskBatch.toOperationIndex(subtask.getEpicId())));
+                }
+                id = generateId();
+                subtask.setId(id);
+                subtasks.put(id, subtask);
+                touch(TaskType.SUBTASK, id);
+                epics.get(subtask.getEpicId()).addSubtask(id);
+                touchedEpicIds.add(subtask.getEpicId());
+                addToTimeStructures(subtask);
+            }
+            case UPDATE_TASK -> {
+                removeFromTimeStructures(tasks.replace(id, item));
+                touch(TaskType.TASK, id);
+                addToTimeStructures(item);
+            }
+            case UPDATE_EPIC -> {
+                epics.replace(id, (Epic) item);
+                touchedEpicIds.add(id);
+            }
+            case UPDATE_SUBTASK -> {
+                removeFromTimeStructures(subtasks.replace(id, (Subtask) item));
+                touch(TaskType.SUBTASK, id);
+                addToTimeStructures(item);
+                touchedEpicIds.add(((Subtask) item).getEpicId());
+            }
+            case REMOVE_TASK -> {
+                removeFromTimeStructures(tasks.remove(id));
+                touchRemoved(TaskType.TASK, List.of(id));
+                forget(id);
+            }
+            case REMOVE_EPIC -> {
+                Epic epic = epics.remove(id);
+                epic.getSubtaskIds().forEach(subtaskId -> {
+                    removeFromTimeStructures(subtasks.remove(subtaskId));
+                    forget(subtaskId);
+                });
+                touchRemoved(TaskType.SUBTASK, epic.getSubtaskIds());
+                forget(id);
+                touchRemoved(TaskType.EPIC, List.of(id));
+                touchedEpicIds.remove(id);
+            }
+            case REMOVE_SUBTASK -> {
+                Subtask subtask = subtasks.remove(id);
+                epics.get(subtask.getEpicId()).removeSubtask(id);
+                touchedEpicIds.add(subtask.getEpicId());
+                removeFromTimeStructures(subtask);
+                touchRemoved(TaskType.SUBTASK, List.of(id));
+                forget(id);
+            }
+        }
+        return id;
+    }
+
+    // Recalculates epics changed by a batch once after all its operations
+    void updateTouchedEpics(Set<Integer> touchedEpicIds) {
+        touchedEpicIds.stream().map(epics::get).forEach(this::updateEpicInternalState);
+    }
+
+    private void addToTimeStructures(Task task) {
+        if (task.getStartTime().isPresent()) {
+            tasksSortedByStartTime.add(task);
+            taskSchedule.add(task);
+        }
+    }
+
+    private void removeFromTimeStructures(Task task) {
+        if (task.getStartTime().isPresent()) {
+            tasksSortedByStartTime.remove(task);
+            taskSchedule.remove(task);
+        }
+    }
+
     private Epic updateEpicStatus(Epic epic) {
         if (epic == null) {
             return null;
@@ -351,21 +803,43 @@ public class InMemoryTaskManager implements TaskManager {
         return epic;
     }
 
+    // Epic is touched even if its status and timing are kept: its subtask list may have been changed
     private Epic updateEpicInternalState(Epic epic) {
-        return updateEpicTiming(updateEpicStatus(epic));
+        Epic updatedEpic = updateEpicTiming(updateEpicStatus(epic));
+        if (updatedEpic != null) {
+            touch(TaskType.EPIC, updatedEpic.getId());
+        }
+        return updatedEpic;
     }
 
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
 
+    @Override
+    public HistoryManager getHistoryManager() {
+        return historyManager;
+    }
+
     protected void load(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) {
         if (lastId != START_ID) {
             throw new ManagerLoadException("Task manager object must be empty");
         }
+        List<TimeConflictValidator.TimeConflict> conflicts =
+                TimeConflictValidator.findConflicts(Stream.concat(tasks.stream(), subtasks.stream()).toList());
+        if (!conflicts.isEmpty()) {
+            throw new ManagerLoadException("Time conflict of items " + conflicts.getFirst().first().getId()
+                    + " and " + conflicts.getFirst().second().getId());
+        }
 
-        tasks.forEach(task -> this.tasks.put(task.getId(), task));
-        subtasks.forEach(subtask -> this.subtasks.put(subtask.getId(), subtask));
+        tasks.forEach(task -> {
+            this.tasks.put(task.getId(), task);
+            touch(TaskType.TASK, task.getId());
+        });
+        subtasks.forEach(subtask -> {
+            this.subtasks.put(subtask.getId(), subtask);
+            touch(TaskType.SUBTASK, subtask.getId());
+        });
         epics.forEach(epic -> {
             this.epics.put(epic.getId(), epic);
             updateEpicInternalState(epic);
@@ -373,89 +847,75 @@ public class InMemoryTaskManager implements TaskManager {
 
         Stream.of(this.tasks.keySet(), this.epics.keySet(), this.subtasks.keySet()).flatMap(Set::stream)
                 .mapToInt(Integer::intValue).max()
-                .ifPresentOrElse(id -> lastId = id, () -> lastId = 0);
+                .ifPresent(id -> lastId = id + idStep);
 
         tasks.stream().filter(t -> t.getStartTime().isPresent())
                 .peek(tasksSortedByStartTime::add)
-                .forEach(this::addToTaskShedule);
+                .forEach(taskSchedule::add);
         subtasks.stream().filter(t -> t.getStartTime().isPresent())
                 .peek(tasksSortedByStartTime::add)
-                .forEach(this::addToTaskShedule);
+                .forEach(taskSchedule::add);
     }
 
     @Override
-    public List<? super Task> getPrioritizedTasks() {
-        return new ArrayList<>(tasksSortedByStartTime);
+    public long getVersion(TaskType type) {
+        return collectionVersions.getOrDefault(type, 0L);
     }
 
-    /// //////////////////////////////////
-    /// 1st implementation of time conflict check
-    private static boolean isTimeConflict(Task task1, Task task2) {
-        Optional<LocalDateTime> ost1 = task1.getStartTime();
-        Optional<LocalDateTime> ost2 = task2.getStartTime();
-
-        if (ost1.isEmpty() || ost2.isEmpty()) {
-            return false;
+    @Override
+    public long getItemVersion(int id) {
+        Long version = itemVersions.get(id);
+        if (version == null) {
+            throw new NotFoundException();
         }
-        LocalDateTime st1 = ost1.get();
-        LocalDateTime st2 = ost2.get();
-        LocalDateTime et1 = task1.getEndTime().get();
-        LocalDateTime et2 = task2.getEndTime().get();
+        return version;
+    }
 
-        return (st1.isBefore(st2) && et1.isAfter(st2))
-                || (st2.isBefore(st1) && et2.isAfter(st1))
-                || st1.equals(st2);
+    @Override
+    public TaskEventBus getEventBus() {
+        return eventBus;
     }
 
-    // complexity O(n)
-    private boolean isTimeConflict(Task task) {
-        return getPrioritizedTasks().stream().anyMatch(t -> isTimeConflict((Task) t, task));
+    @Override
+    public List<HotItem> getHotItems() {
+        return hotItemTracker.getHotItems().stream().filter(item -> contains(item.id())).toList();
+    }
+
+    // Drops a removed item from the history and the hot items
+    private void forget(int id) {
+        historyManager.remove(id);
+        hotItemTracker.remove(id);
+    }
+
+    boolean contains(int id) {
+        return tasks.containsKey(id) || epics.containsKey(id) || subtasks.containsKey(id);
+    }
+
+    // Restores history of loaded items without reading them one by one, unknown ids are skipped
+    protected void restoreHistory(List<Integer> ids) {
+        for (int id : ids) {
+            Task item = tasks.get(id);
+            if (item == null) {
+                item = epics.get(id);
+            }
+            if (item == null) {
+                item = subtasks.get(id);
+            }
+            if (item != null) {
+                historyManager.add(item);
+            }
+        }
+    }
+
+    @Override
+    public List<? super Task> getPrioritizedTasks() {
+        return new ArrayList<>(tasksSortedByStartTime);
     }
 
     /// //////////////////////////////////
-    /// 2nd implementation of time conflict check
-    private LongStream getTaskSheduleIntervals(Task task) {
-        final long intervalLength = 60 * 60;
-        long firstInterval = task.getStartTime().get().toEpochSecond(ZoneOffset.UTC) / intervalLength;
-        long lastInterval = (task.getEndTime().get().toEpochSecond(ZoneOffset.UTC) - 1) / intervalLength;
-        return LongStream.range(firstInterval, lastInterval + 1);
-    }
-
-    private void addToTaskShedule(Task task) {
-        if (task.getStartTime().isEmpty()) {
-            return;
-        }
-        Integer id = task.getId();
-        getTaskSheduleIntervals(task)
-                .forEach(i -> taskSchedule.computeIfAbsent(i, k -> new HashSet<>()).add(id));
-    }
-
-    private void removeFromTaskShedule(Task task) {
-        if (task.getStartTime().isEmpty()) {
-            return;
-        }
-        Integer id = task.getId();
-        getTaskSheduleIntervals(task)
-                .peek(i -> taskSchedule.get(i).remove(id))    // remove id from set
-                .filter(i -> taskSchedule.get(i).isEmpty())
-                .forEach(taskSchedule::remove);               // remove empty sets
-    }
-
-    // complexity O(1)
-    private boolean isTimeConflictQ(Task task) {
-        if (task.getStartTime().isEmpty()) {
-            return false;
-        }
-        return getTaskSheduleIntervals(task)
-                .mapToObj(taskSchedule::get)
-                .filter(Objects::nonNull)
-                .flatMap(HashSet::stream)
-                .map(id -> {
-                    if (tasks.get(id) != null) {
-                        return tasks.get(id);
-                    }
-                    return subtasks.get(id);
-                })
-                .anyMatch(t -> isTimeConflict(task, t));
+    /// 1st implementation of time conflict check
+    // complexity O(n)
+    private boolean isTimeConflict(Task task) {
+        return getPrioritizedTasks().stream().anyMatch(t -> TaskSchedule.isTimeConflict((Task) t, task));
     }
-}
\ No newline at end of file
+}
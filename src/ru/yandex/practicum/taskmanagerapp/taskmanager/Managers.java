@@ -1,14 +1,34 @@
 package ru.yandex.practicum.taskmanagerapp.taskmanager;
 
+import ru.yandex.practicum.taskmanagerapp.history.ConcurrentHistoryManager;
 import ru.yandex.practicum.taskmanagerapp.history.HistoryManager;
 import ru.yandex.practicum.taskmanagerapp.history.InMemoryHistoryManager;
+import ru.yandex.practicum.taskmanagerapp.history.SessionHistoryManager;
+
+import java.time.Duration;
 
 public class Managers {
+    private static final int SESSION_HISTORY_SIZE = 1000;
+    private static final long TOTAL_HISTORY_SIZE = 1_000_000;
+    private static final Duration SESSION_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
     public static TaskManager getDefault() {
         return new InMemoryTaskManager(getDefaultHistory());
     }
 
+    public static TaskManager getSharded(int shardCount) {
+        return new ShardedTaskManager(shardCount, getConcurrentHistory());
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getSessionHistory() {
+        return new SessionHistoryManager(SESSION_HISTORY_SIZE, TOTAL_HISTORY_SIZE, SESSION_IDLE_TIMEOUT);
+    }
+
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager(getDefaultHistory());
+    }
 }
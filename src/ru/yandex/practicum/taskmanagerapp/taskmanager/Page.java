@@ -0,0 +1,13 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.util.List;
+
+// Page of a list query, items are ordered by id.
+// nextAfterId is the id to continue the query after, Task.NULL_ID if the page is the last one
+public record Page<T extends Task>(List<T> items, int nextAfterId) {
+    public boolean hasNext() {
+        return nextAfterId != Task.NULL_ID;
+    }
+}
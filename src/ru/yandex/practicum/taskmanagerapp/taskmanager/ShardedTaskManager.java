@@ -0,0 +1,480 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.exception.BatchException;
+import ru.yandex.practicum.taskmanagerapp.exception.ManagerException;
+import ru.yandex.practicum.taskmanagerapp.exception.NullItemException;
+import ru.yandex.practicum.taskmanagerapp.history.ConcurrentHistoryManager;
+import ru.yandex.practicum.taskmanagerapp.history.HistoryManager;
+import ru.yandex.practicum.taskmanagerapp.history.SessionHistoryManager;
+import ru.yandex.practicum.taskmanagerapp.history.SynchronizedHistoryManager;
+import ru.yandex.practicum.taskmanagerapp.stats.HotItem;
+import ru.yandex.practicum.taskmanagerapp.stats.HotItemTracker;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Task manager partitioned into several InMemoryTaskManager shards.
+// Shard i generates ids START_ID + i, START_ID + i + N, ..., so the shard of any item is known from its id.
+// Subtasks are created by the shard of their epic. All shards share one time schedule,
+// so time conflicts are checked globally.
+public class ShardedTaskManager implements TaskManager {
+    private final InMemoryTaskManager[] shards;
+    private final ReadWriteLock[] locks;
+    private final HistoryManager historyManager;
+    private final HotItemTracker hotItemTracker;
+    private final TaskEventBus eventBus;
+    private final TaskSchedule taskSchedule = new TaskSchedule();
+    private final ExecutorService executor;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    private static final Comparator<Object> START_TIME_ORDER =
+            Comparator.comparing(t -> ((Task) t).getStartTime().orElseThrow());
+
+    public ShardedTaskManager(int shardCount, HistoryManager historyManager) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.historyManager = (historyManager instanceof ConcurrentHistoryManager
+                || historyManager instanceof SynchronizedHistoryManager
+                || historyManager instanceof SessionHistoryManager)
+                ? historyManager : new SynchronizedHistoryManager(historyManager);
+        hotItemTracker = InMemoryTaskManager.createHotItemTracker();
+        eventBus = InMemoryTaskManager.createEventBus();
+        shards = new InMemoryTaskManager[shardCount];
+        locks = new ReadWriteLock[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new InMemoryTaskManager(this.historyManager, taskSchedule, hotItemTracker, eventBus,
+                    InMemoryTaskManager.START_ID + i, shardCount);
+            locks[i] = new ReentrantReadWriteLock();
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(shardCount, r -> {
+            Thread thread = new Thread(r, "task-manager-shard-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private int shardOf(int id) {
+        return Math.floorMod(id - InMemoryTaskManager.START_ID, shards.length);
+    }
+
+    private int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), shards.length);
+    }
+
+    private static <R> R locked(Lock lock, Supplier<R> operation) {
+        lock.lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <R> R read(int shard, Function<InMemoryTaskManager, R> operation) {
+        return locked(locks[shard].readLock(), () -> operation.apply(shards[shard]));
+    }
+
+    private <R> R write(int shard, Function<InMemoryTaskManager, R> operation) {
+        return locked(locks[shard].writeLock(), () -> operation.apply(shards[shard]));
+    }
+
+    // Runs operation on every shard in parallel, results are ordered by shard number
+    private <R> List<R> fanOut(Function<InMemoryTaskManager, R> operation, boolean isWrite) {
+        List<Future<R>> futures = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            final int shard = i;
+            futures.add(executor.submit(() -> isWrite ? write(shard, operation) : read(shard, operation)));
+        }
+
+        List<R> results = new ArrayList<>(shards.length);
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ManagerException(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerException("Interrupted");
+        }
+        return results;
+    }
+
+    private static <T> List<T> concat(List<List<T>> lists) {
+        List<T> result = new ArrayList<>(lists.stream().mapToInt(List::size).sum());
+        lists.forEach(result::addAll);
+        return result;
+    }
+
+    // k-way merge of lists sorted by start time, complexity O(n log k)
+    private static List<? super Task> mergeByStartTime(List<List<? super Task>> sortedLists) {
+        record Cursor(List<? super Task> list, int index) {
+            Object current() {
+                return list.get(index);
+            }
+        }
+
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                Comparator.comparing(Cursor::current, START_TIME_ORDER));
+        sortedLists.stream().filter(list -> !list.isEmpty()).map(list -> new Cursor(list, 0)).forEach(queue::add);
+
+        List<? super Task> result = new ArrayList<>(sortedLists.stream().mapToInt(List::size).sum());
+        while (!queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            result.add((Task) cursor.current());
+            if (cursor.index() + 1 < cursor.list().size()) {
+                queue.add(new Cursor(cursor.list(), cursor.index() + 1));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int addTask(Task task) {
+        return write(nextShard(), shard -> shard.addTask(task));
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        return write(nextShard(), shard -> shard.addEpic(epic));
+    }
+
+    @Override
+    public int addSubtask(Subtask subtask) {
+        if (subtask == null) {
+            throw new NullItemException();
+        }
+        return write(shardOf(subtask.getEpicId()), shard -> shard.addSubtask(subtask));
+    }
+
+    @Override
+    public Task updateTask(Task task) {
+        if (task == null) {
+            throw new NullItemException();
+        }
+        return write(shardOf(task.getId()), shard -> shard.updateTask(task));
+    }
+
+    @Override
+    public Epic updateEpic(Epic epic) {
+        if (epic == null) {
+            throw new NullItemException();
+        }
+        return write(shardOf(epic.getId()), shard -> shard.updateEpic(epic));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask subtask) {
+        if (subtask == null) {
+            throw new NullItemException();
+        }
+        return write(shardOf(subtask.getId()), shard -> shard.updateSubtask(subtask));
+    }
+
+    @Override
+    public long updateTask(Task task, long expectedVersion) {
+        if (task == null) {
+            throw new NullItemException();
+        }
+        return write(shardOf(task.getId()), shard -> shard.updateTask(task, expectedVersion));
+    }
+
+    @Override
+    public long updateEpic(Epic epic, long expectedVersion) {
+        if (epic == null) {
+            throw new NullItemException();
+        }
+        return write(shardOf(epic.getId()), shard -> shard.updateEpic(epic, expectedVersion));
+    }
+
+    @Override
+    public long updateSubtask(Subtask subtask, long expectedVersion) {
+        if (subtask == null) {
+            throw new NullItemException();
+        }
+        return write(shardOf(subtask.getId()), shard -> shard.updateSubtask(subtask, expectedVersion));
+    }
+
+    @Override
+    public List<Task> getTaskList() {
+        return concat(fanOut(InMemoryTaskManager::getTaskList, false));
+    }
+
+    @Override
+    public List<Epic> getEpicList() {
+        return concat(fanOut(InMemoryTaskManager::getEpicList, false));
+    }
+
+    @Override
+    public List<Subtask> getSubtaskList() {
+        return concat(fanOut(InMemoryTaskManager::getSubtaskList, false));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        return read(shardOf(epicId), shard -> shard.getEpicSubtasks(epicId));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId, boolean recordViews) {
+        return read(shardOf(epicId), shard -> shard.getEpicSubtasks(epicId, recordViews));
+    }
+
+    @Override
+    public Page<Task> getTasks(TaskQuery query, int afterId, int limit) {
+        return mergePages(fanOut(shard -> shard.getTasks(query, afterId, limit), false), limit);
+    }
+
+    @Override
+    public Page<Epic> getEpics(TaskQuery query, int afterId, int limit) {
+        return mergePages(fanOut(shard -> shard.getEpics(query, afterId, limit), false), limit);
+    }
+
+    // Subtasks of an epic belong to the epic's shard
+    @Override
+    public Page<Subtask> getSubtasks(TaskQuery query, int afterId, int limit) {
+        if (query.epicId() != null) {
+            return read(shardOf(query.epicId()), shard -> shard.getSubtasks(query, afterId, limit));
+        }
+        return mergePages(fanOut(shard -> shard.getSubtasks(query, afterId, limit), false), limit);
+    }
+
+    // Every shard page has up to limit items following the same id, so the first limit items
+    // of their union are the page of the whole manager
+    private static <T extends Task> Page<T> mergePages(List<Page<T>> pages, int limit) {
+        List<T> items = new ArrayList<>();
+        pages.forEach(page -> items.addAll(page.items()));
+        items.sort(Comparator.comparingInt(Task::getId));
+        boolean hasNext = items.size() > limit || pages.stream().anyMatch(Page::hasNext);
+        List<T> page = new ArrayList<>(items.subList(0, Math.min(limit, items.size())));
+        return new Page<>(page, hasNext ? page.getLast().getId() : Task.NULL_ID);
+    }
+
+    @Override
+    public void clear() {
+        fanOut(shard -> {
+            shard.clear();
+            return null;
+        }, true);
+    }
+
+    @Override
+    public void clearTasks() {
+        fanOut(shard -> {
+            shard.clearTasks();
+            return null;
+        }, true);
+    }
+
+    @Override
+    public void clearEpics() {
+        fanOut(shard -> {
+            shard.clearEpics();
+            return null;
+        }, true);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        fanOut(shard -> {
+            shard.clearSubtasks();
+            return null;
+        }, true);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return read(shardOf(id), shard -> shard.getTask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return read(shardOf(id), shard -> shard.getEpic(id));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return read(shardOf(id), shard -> shard.getSubtask(id));
+    }
+
+    @Override
+    public Task removeTask(int id) {
+        return write(shardOf(id), shard -> shard.removeTask(id));
+    }
+
+    @Override
+    public Epic removeEpic(int id) {
+        return write(shardOf(id), shard -> shard.removeEpic(id));
+    }
+
+    @Override
+    public Subtask removeSubtask(int id) {
+        return write(shardOf(id), shard -> shard.removeSubtask(id));
+    }
+
+    @Override
+    public Task removeTask(int id, long expectedVersion) {
+        return write(shardOf(id), shard -> shard.removeTask(id, expectedVersion));
+    }
+
+    @Override
+    public Epic removeEpic(int id, long expectedVersion) {
+        return write(shardOf(id), shard -> shard.removeEpic(id, expectedVersion));
+    }
+
+    @Override
+    public Subtask removeSubtask(int id, long expectedVersion) {
+        return write(shardOf(id), shard -> shard.removeSubtask(id, expectedVersion));
+    }
+
+    // Every operation is applied by the shard of its item: added tasks and epics are spread over the shards,
+    // subtasks go to the shard of their epic. Write locks of the touched shards are taken in ascending order,
+    // then the batch is validated and applied as a whole under the lock of the shared schedule
+    @Override
+    public List<Integer> applyBatch(TaskBatch batch) {
+        if (batch == null) {
+            throw new NullItemException();
+        }
+        List<TaskBatch.Operation> operations = batch.getOperations();
+        int[] operationShards = new int[operations.size()];
+        SortedSet<Integer> batchShards = new TreeSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            operationShards[i] = shardOf(operations.get(i), operationShards);
+            batchShards.add(operationShards[i]);
+        }
+
+        List<Lock> batchLocks = batchShards.stream().map(shard -> locks[shard].writeLock()).toList();
+        batchLocks.forEach(Lock::lock);
+        try {
+            synchronized (taskSchedule) {
+                Map<Integer, InMemoryTaskManager.BatchChange> changes = new HashMap<>();
+                BatchException firstError = null;
+                for (int shard : batchShards) {
+                    try {
+                        shards[shard].validateOperations(operations, i -> operationShards[i] == shard, changes);
+                    } catch (BatchException e) {
+                        if (firstError == null || e.getOperationIndex() < firstError.getOperationIndex()) {
+                            firstError = e;
+                        }
+                    }
+                }
+                if (firstError != null) {
+                    throw firstError;
+                }
+                if (!batchShards.isEmpty()) {
+                    shards[batchShards.first()].validateSchedule(changes);
+                }
+
+                List<Integer> results = new ArrayList<>(operations.size());
+                Map<Integer, Set<Integer>> touchedEpicIds = new HashMap<>();
+                for (int i = 0; i < operations.size(); i++) {
+                    results.add(shards[operationShards[i]].applyOperation(operations.get(i), results,
+                            touchedEpicIds.computeIfAbsent(operationShards[i], shard -> new LinkedHashSet<>())));
+                }
+                touchedEpicIds.forEach((shard, epicIds) -> shards[shard].updateTouchedEpics(epicIds));
+                return results;
+            }
+        } finally {
+            batchLocks.reversed().forEach(Lock::unlock);
+        }
+    }
+
+    // Shard of a batch operation; operationShards holds shards of the preceding operations,
+    // so a subtask of an epic added by the batch goes to the shard of that epic
+    private int shardOf(TaskBatch.Operation operation, int[] operationShards) {
+        return switch (operation.type()) {
+            case ADD_TASK, ADD_EPIC -> nextShard();
+            case ADD_SUBTASK -> {
+                if (operation.item() == null) {
+                    yield 0;    // rejected by validation
+                }
+                int epicId = ((Subtask) operation.item()).getEpicId();
+                if (!TaskBatch.isReference(epicId)) {
+                    yield shardOf(epicId);
+                }
+                int epicIndex = TaskBatch.toOperationIndex(epicId);
+                yield (epicIndex < operationShards.length) ? operationShards[epicIndex] : 0;
+            }
+            default -> shardOf(operation.targetId());
+        };
+    }
+
+    // Every operation is routed to its own shard
+    @Override
+    public List<TaskBatch.Result> applyEach(TaskBatch batch) {
+        if (batch == null) {
+            throw new NullItemException();
+        }
+        return TaskBatch.applyEach(batch.getOperations(), operation -> {
+            TaskBatch single = new TaskBatch();
+            single.add(operation);
+            return applyBatch(single).getFirst();
+        });
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public HistoryManager getHistoryManager() {
+        return historyManager;
+    }
+
+    // Shards take versions from the same event bus, so the latest change of a collection has the greatest version
+    @Override
+    public long getVersion(TaskType type) {
+        long version = 0;
+        for (int i = 0; i < shards.length; i++) {
+            version = Math.max(version, read(i, shard -> shard.getVersion(type)));
+        }
+        return version;
+    }
+
+    @Override
+    public long getItemVersion(int id) {
+        return read(shardOf(id), shard -> shard.getItemVersion(id));
+    }
+
+    @Override
+    public TaskEventBus getEventBus() {
+        return eventBus;
+    }
+
+    @Override
+    public List<HotItem> getHotItems() {
+        return hotItemTracker.getHotItems().stream()
+                .filter(item -> read(shardOf(item.id()), shard -> shard.contains(item.id())))
+                .toList();
+    }
+
+    @Override
+    public List<? super Task> getPrioritizedTasks() {
+        return mergeByStartTime(fanOut(InMemoryTaskManager::getPrioritizedTasks, false));
+    }
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.exception.BatchException;
+import ru.yandex.practicum.taskmanagerapp.exception.InconsistentDataException;
+import ru.yandex.practicum.taskmanagerapp.exception.ManagerException;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// List of operations applied by TaskManager.applyBatch all-or-nothing or by TaskManager.applyEach one by one.
+// Add methods return a reference to the item being added: a negative number which may be used
+// as epic id of subtasks added by the same batch.
+public class TaskBatch {
+    public enum OperationType {
+        ADD_TASK,
+        ADD_EPIC,
+        ADD_SUBTASK,
+        UPDATE_TASK,
+        UPDATE_EPIC,
+        UPDATE_SUBTASK,
+        REMOVE_TASK,
+        REMOVE_EPIC,
+        REMOVE_SUBTASK
+    }
+
+    public record Operation(OperationType type, Task item, int id) {
+        // id of the item to be updated or removed
+        public int targetId() {
+            return (item != null) ? item.getId() : id;
+        }
+    }
+
+    // Outcome of an operation applied by applyEach: id of the added, updated or removed item or the error
+    public record Result(int id, RuntimeException error) {
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    private int add(OperationType type, Task item, int id) {
+        return add(new Operation(type, item, id));
+    }
+
+    int add(Operation operation) {
+        operations.add(operation);
+        return toReference(operations.size() - 1);
+    }
+
+    static int toReference(int operationIndex) {
+        return -(operationIndex + 1);
+    }
+
+    static boolean isReference(int id) {
+        return id < 0;
+    }
+
+    static int toOperationIndex(int reference) {
+        return -reference - 1;
+    }
+
+    public int addTask(Task task) {
+        return add(OperationType.ADD_TASK, task, Task.NULL_ID);
+    }
+
+    public int addEpic(Epic epic) {
+        return add(OperationType.ADD_EPIC, epic, Task.NULL_ID);
+    }
+
+    public int addSubtask(Subtask subtask) {
+        return add(OperationType.ADD_SUBTASK, subtask, Task.NULL_ID);
+    }
+
+    public void updateTask(Task task) {
+        add(OperationType.UPDATE_TASK, task, Task.NULL_ID);
+    }
+
+    public void updateEpic(Epic epic) {
+        add(OperationType.UPDATE_EPIC, epic, Task.NULL_ID);
+    }
+
+    public void updateSubtask(Subtask subtask) {
+        add(OperationType.UPDATE_SUBTASK, subtask, Task.NULL_ID);
+    }
+
+    public void removeTask(int id) {
+        add(OperationType.REMOVE_TASK, null, id);
+    }
+
+    public void removeEpic(int id) {
+        add(OperationType.REMOVE_EPIC, null, id);
+    }
+
+    public void removeSubtask(int id) {
+        add(OperationType.REMOVE_SUBTASK, null, id);
+    }
+
+    // Applies operations one by one, a failed operation does not stop the following ones.
+    // Epic references of added subtasks are replaced with ids, a subtask of a failed epic fails too
+    static List<Result> applyEach(List<Operation> operations, ToIntFunction<Operation> apply) {
+        List<Result> results = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            try {
+                if (operation.type() == OperationType.ADD_SUBTASK && operation.item() != null
+                        && isReference(((Subtask) operation.item()).getEpicId())) {
+                    Subtask subtask = (Subtask) operation.item();
+                    int epicIndex = toOperationIndex(subtask.getEpicId());
+                    if (epicIndex >= results.size() || !results.get(epicIndex).isSuccess()) {
+                        throw new InconsistentDataException("Epic of the subtask has not been added");
+                    }
+                    subtask.setEpicId(results.get(epicIndex).id());
+                }
+                results.add(new Result(apply.applyAsInt(operation), null));
+            } catch (BatchException e) {
+                results.add(new Result(Task.NULL_ID, e.getCause()));
+            } catch (ManagerException | InconsistentDataException e) {
+                results.add(new Result(Task.NULL_ID, e));
+            }
+        }
+        return results;
+    }
+
+    public List<Operation> getOperations() {
+        return new ArrayList<>(operations);
+    }
+
+    public int size() {
+        return operations.size();
+    }
+}
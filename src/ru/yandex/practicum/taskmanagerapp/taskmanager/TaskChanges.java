@@ -0,0 +1,40 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Delta of the items since a version: the last state of created or changed items and ids of deleted ones.
+// version is the version of the last change included, the next delta is requested since it.
+// If resync is true the delta is unknown and the lists are empty: the client reloads all items
+// and requests the next delta since version
+public record TaskChanges(long version, boolean resync, List<Task> tasks, List<Epic> epics, List<Subtask> subtasks,
+                          List<Integer> deleted) {
+    static TaskChanges fullResync(long version) {
+        return new TaskChanges(version, true, List.of(), List.of(), List.of(), List.of());
+    }
+
+    // events holds at most one event of every item
+    static TaskChanges of(long version, Collection<TaskEvent> events) {
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        for (TaskEvent event : events) {
+            if (event.kind() == TaskEvent.Kind.DELETED) {
+                deleted.add(event.itemId());
+                continue;
+            }
+            switch (event.type()) {
+                case TASK -> tasks.add(event.item());
+                case EPIC -> epics.add((Epic) event.item());
+                case SUBTASK -> subtasks.add((Subtask) event.item());
+            }
+        }
+        return new TaskChanges(version, false, tasks, epics, subtasks, deleted);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
+
+// Change of an item published by a task manager to its TaskEventBus.
+// id is the version the change gave the item, so ids grow in publication order.
+// item is the state after the change, null if the item has been deleted
+public record TaskEvent(long id, Kind kind, TaskType type, int itemId, Task item) {
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
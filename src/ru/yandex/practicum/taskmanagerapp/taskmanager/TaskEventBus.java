@@ -0,0 +1,198 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Changes of a task manager for subscribers that follow them, e.g. Server-Sent Events streams.
+// Events are numbered one by one and the last capacity of them are kept in a ring shared by all subscribers,
+// so publishing takes the same time and memory whatever the number of subscribers.
+// Every subscription reads the ring from its own position and is its own bounded buffer: a subscriber
+// that falls behind by more than its maxLag events is dropped instead of holding events for it.
+// The ring is also the change log of delta sync, a deleted item is kept there as an event without the item.
+// The bus is thread-safe, shards of a task manager publish to one bus
+public class TaskEventBus {
+    private final TaskEvent[] ring;
+    private final long startId;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private volatile long lastId;
+
+    public TaskEventBus(int capacity) {
+        this(capacity, 0);
+    }
+
+    // Events are numbered from startId + 1
+    public TaskEventBus(int capacity, long startId) {
+        if (capacity < 1 || startId < 0) {
+            throw new IllegalArgumentException("Capacity must be positive, start id must not be negative");
+        }
+        ring = new TaskEvent[capacity];
+        this.startId = startId;
+        this.lastId = startId;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    // Id of the last published event, the start id if nothing has been published
+    public long getLastEventId() {
+        return lastId;
+    }
+
+    // Checked under the lock: the events after id are kept and the lag of a reader at id is within maxLag
+    private boolean isKept(long id, long maxLag) {
+        return id >= startId && id <= lastId && lastId - id <= maxLag;
+    }
+
+    // Changes after version, or a full resync if some of them are not kept any more or version is unknown.
+    // Every changed item is returned once, in the state of its last change
+    public TaskChanges getChangesSince(long version) {
+        List<TaskEvent> events;
+        long lastId;
+        lock.lock();
+        try {
+            lastId = this.lastId;
+            if (!isKept(version, ring.length)) {
+                return TaskChanges.fullResync(lastId);
+            }
+            events = readEvents(version, lastId);
+        } finally {
+            lock.unlock();
+        }
+
+        Map<Integer, TaskEvent> lastEvents = new LinkedHashMap<>();
+        for (TaskEvent event : events) {
+            lastEvents.remove(event.itemId());     // items are ordered by their last change
+            lastEvents.put(event.itemId(), event);
+        }
+        return TaskChanges.of(lastId, lastEvents.values());
+    }
+
+    // Called under the lock
+    private List<TaskEvent> readEvents(long afterId, long toId) {
+        List<TaskEvent> events = new ArrayList<>((int) (toId - afterId));
+        for (long id = afterId + 1; id <= toId; id++) {
+            events.add(ring[(int) (id % ring.length)]);
+        }
+        return events;
+    }
+
+    // Publishes the change with the next id and returns the id
+    long publish(TaskEvent.Kind kind, TaskType type, int itemId, Task item) {
+        lock.lock();
+        try {
+            long id = lastId + 1;
+            ring[(int) (id % ring.length)] = new TaskEvent(id, kind, type, itemId, item);
+            lastId = id;
+            published.signalAll();
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Subscription to the events published from now on
+    public Subscription subscribe(int maxLag) {
+        return subscribe(lastId, maxLag);
+    }
+
+    // Subscription to the events after lastEventId. If some of them are not kept any more, or lastEventId
+    // is unknown to the bus, the subscription is reset: it starts from the last event and the subscriber
+    // has to reload the state it follows
+    public Subscription subscribe(long lastEventId, int maxLag) {
+        if (maxLag < 1 || maxLag > ring.length) {
+            throw new IllegalArgumentException("Lag must be positive and must not exceed the capacity");
+        }
+        lock.lock();
+        try {
+            boolean isKept = isKept(lastEventId, maxLag);
+            return new Subscription(isKept ? lastEventId : lastId, maxLag, !isKept);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final int maxLag;
+        private final boolean isReset;
+        private long position;              // id of the last event read
+        private boolean isDropped = false;
+        private boolean isClosed = false;
+
+        private Subscription(long position, int maxLag, boolean isReset) {
+            this.position = position;
+            this.maxLag = maxLag;
+            this.isReset = isReset;
+        }
+
+        // Waits up to timeout for events and returns them in publication order, an empty list if none
+        // has been published. Returns null if the subscription is closed or dropped for lagging behind
+        public List<TaskEvent> poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (position == lastId && !isClosed && nanos > 0) {
+                    nanos = published.awaitNanos(nanos);
+                }
+                if (!isClosed && lastId - position > maxLag) {
+                    isDropped = true;
+                    isClosed = true;
+                }
+                if (isClosed) {
+                    return null;
+                }
+                List<TaskEvent> events = readEvents(position, lastId);
+                position = lastId;
+                return events;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Id of the last event read, events are read after it
+        public long getPosition() {
+            lock.lock();
+            try {
+                return position;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // True if events after the requested id have been missed
+        public boolean isReset() {
+            return isReset;
+        }
+
+        // True if the subscriber has fallen behind by more than maxLag events
+        public boolean isDropped() {
+            lock.lock();
+            try {
+                return isDropped;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Wakes up a waiting poll, which returns null
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                isClosed = true;
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package ru.yandex.practicum.taskmanagerapp.taskmanager;
 
+import ru.yandex.practicum.taskmanagerapp.history.HistoryManager;
+import ru.yandex.practicum.taskmanagerapp.stats.HotItem;
 import ru.yandex.practicum.taskmanagerapp.task.Epic;
 import ru.yandex.practicum.taskmanagerapp.task.Subtask;
 import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
 
 import java.util.List;
 
@@ -19,6 +22,14 @@ public interface TaskManager {
 
     Subtask updateSubtask(Subtask subtask);
 
+    // Conditional updates: the item is replaced only if its version is still expectedVersion,
+    // otherwise VersionConflictException is thrown. Return the new version of the item
+    long updateTask(Task task, long expectedVersion);
+
+    long updateEpic(Epic epic, long expectedVersion);
+
+    long updateSubtask(Subtask subtask, long expectedVersion);
+
     List<Task> getTaskList();
 
     List<Epic> getEpicList();
@@ -27,6 +38,17 @@ public interface TaskManager {
 
     List<Subtask> getEpicSubtasks(int epicId);
 
+    // Subtasks of the epic, their views are recorded in history if recordViews is true
+    List<Subtask> getEpicSubtasks(int epicId, boolean recordViews);
+
+    // Page of at most limit items with ids greater than afterId which match query, ordered by id.
+    // Items are not copied to a full list, so a page costs O(limit) unless the query skips many items
+    Page<Task> getTasks(TaskQuery query, int afterId, int limit);
+
+    Page<Epic> getEpics(TaskQuery query, int afterId, int limit);
+
+    Page<Subtask> getSubtasks(TaskQuery query, int afterId, int limit);
+
     void clear();
 
     void clearTasks();
@@ -47,7 +69,35 @@ public interface TaskManager {
 
     Subtask removeSubtask(int id);
 
+    // Conditional removals: the item is removed only if its version is still expectedVersion
+    Task removeTask(int id, long expectedVersion);
+
+    Epic removeEpic(int id, long expectedVersion);
+
+    Subtask removeSubtask(int id, long expectedVersion);
+
+    // Applies all operations or none of them, returns ids of added, updated or removed items
+    List<Integer> applyBatch(TaskBatch batch);
+
+    // Applies operations one by one, a failed operation does not stop the following ones
+    List<TaskBatch.Result> applyEach(TaskBatch batch);
+
     List<Task> getHistory();
 
+    // History manager recording the views, e.g. a SessionHistoryManager the HTTP server binds sessions of
+    HistoryManager getHistoryManager();
+
     List<? super Task> getPrioritizedTasks();
+
+    // Version of a collection grows with every change of its items, 0 if the collection has never been changed
+    long getVersion(TaskType type);
+
+    // Version of an item grows with every change of the item
+    long getItemVersion(int id);
+
+    // Changes of items, every change is published after it has been applied
+    TaskEventBus getEventBus();
+
+    // Most viewed items, most viewed first
+    List<HotItem> getHotItems();
 }
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.time.LocalDateTime;
+
+// Filter of list queries, null fields are not checked.
+// Time window is [from, to): an item matches if it has start time and overlaps the window
+public record TaskQuery(TaskStatus status, Integer epicId, LocalDateTime from, LocalDateTime to) {
+    public static final TaskQuery ALL = new TaskQuery(null, null, null, null);
+
+    public boolean matches(Task item) {
+        if (status != null && item.getStatus() != status) {
+            return false;
+        }
+        if (epicId != null && !(item instanceof Subtask subtask && subtask.getEpicId() == epicId)) {
+            return false;
+        }
+        if (from == null && to == null) {
+            return true;
+        }
+        if (item.getStartTime().isEmpty()) {
+            return false;
+        }
+        return (to == null || item.getStartTime().get().isBefore(to))
+                && (from == null || item.getEndTime().get().isAfter(from));
+    }
+}
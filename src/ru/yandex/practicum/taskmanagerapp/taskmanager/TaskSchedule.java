@@ -0,0 +1,112 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+// Time index: stores 1-hour intervals and tasks scheduled in them.
+// Methods are synchronized so one schedule can be shared by several task managers
+// (see ShardedTaskManager), for a single manager the monitor is never contended.
+class TaskSchedule {
+    private static final long INTERVAL_LENGTH = 60 * 60;
+
+    private final HashMap<Long, HashMap<Integer, Task>> intervals = new HashMap<>();
+
+    private static LongStream getIntervals(Task task) {
+        long firstInterval = task.getStartTime().get().toEpochSecond(ZoneOffset.UTC) / INTERVAL_LENGTH;
+        long lastInterval = (task.getEndTime().get().toEpochSecond(ZoneOffset.UTC) - 1) / INTERVAL_LENGTH;
+        return LongStream.range(firstInterval, lastInterval + 1);
+    }
+
+    static boolean isTimeConflict(Task task1, Task task2) {
+        Optional<LocalDateTime> ost1 = task1.getStartTime();
+        Optional<LocalDateTime> ost2 = task2.getStartTime();
+
+        if (ost1.isEmpty() || ost2.isEmpty()) {
+            return false;
+        }
+        LocalDateTime st1 = ost1.get();
+        LocalDateTime st2 = ost2.get();
+        LocalDateTime et1 = task1.getEndTime().get();
+        LocalDateTime et2 = task2.getEndTime().get();
+
+        return (st1.isBefore(st2) && et1.isAfter(st2))
+                || (st2.isBefore(st1) && et2.isAfter(st1))
+                || st1.equals(st2);
+    }
+
+    synchronized void add(Task task) {
+        if (task.getStartTime().isEmpty()) {
+            return;
+        }
+        getIntervals(task)
+                .forEach(i -> intervals.computeIfAbsent(i, k -> new HashMap<>()).put(task.getId(), task));
+    }
+
+    synchronized void remove(Task task) {
+        if (task.getStartTime().isEmpty()) {
+            return;
+        }
+        Integer id = task.getId();
+        getIntervals(task)
+                .filter(intervals::containsKey)
+                .peek(i -> intervals.get(i).remove(id))      // remove id from interval
+                .filter(i -> intervals.get(i).isEmpty())
+                .forEach(intervals::remove);                 // remove empty intervals
+    }
+
+    // complexity O(1)
+    synchronized boolean isConflict(Task task) {
+        if (task.getStartTime().isEmpty()) {
+            return false;
+        }
+        return getIntervals(task)
+                .mapToObj(intervals::get)
+                .filter(Objects::nonNull)
+                .flatMap(interval -> interval.values().stream())
+                .anyMatch(t -> isTimeConflict(task, t));
+    }
+
+    // Conflict check ignoring tasks with given ids (e.g. the ones to be replaced or removed)
+    synchronized boolean isConflict(Task task, Set<Integer> ignoredIds) {
+        if (task.getStartTime().isEmpty()) {
+            return false;
+        }
+        return getIntervals(task)
+                .mapToObj(intervals::get)
+                .filter(Objects::nonNull)
+                .flatMap(interval -> interval.values().stream())
+                .filter(t -> !ignoredIds.contains(t.getId()))
+                .anyMatch(t -> isTimeConflict(task, t));
+    }
+
+    // Atomic check and add, returns false on time conflict
+    synchronized boolean tryAdd(Task task) {
+        if (isConflict(task)) {
+            return false;
+        }
+        add(task);
+        return true;
+    }
+
+    // Atomic replacement of oldTask by newTask, schedule is left unchanged on time conflict
+    synchronized boolean tryReplace(Task oldTask, Task newTask) {
+        remove(oldTask);
+        if (isConflict(newTask)) {
+            add(oldTask);
+            return false;
+        }
+        add(newTask);
+        return true;
+    }
+
+    synchronized void clear() {
+        intervals.clear();
+    }
+}
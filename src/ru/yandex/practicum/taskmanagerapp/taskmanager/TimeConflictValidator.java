@@ -0,0 +1,47 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+// Bulk time conflict check for imports and consistency reports.
+// Sweep line over tasks sorted by start time, complexity O(n log n + number of conflicts)
+public class TimeConflictValidator {
+    public record TimeConflict(Task first, Task second) {
+    }
+
+    private TimeConflictValidator() {
+    }
+
+    // Reports every pair of overlapping tasks, tasks without start time are ignored
+    public static List<TimeConflict> findConflicts(Collection<? extends Task> tasks) {
+        List<Task> sortedTasks = tasks.stream()
+                .filter(task -> task.getStartTime().isPresent())
+                .sorted(Comparator.comparing(task -> task.getStartTime().get()))
+                .map(Task.class::cast)
+                .toList();
+
+        List<TimeConflict> conflicts = new ArrayList<>();
+        // tasks which may overlap the next one, the one finishing first is on the top
+        PriorityQueue<Task> activeTasks = new PriorityQueue<>(
+                Comparator.comparing(task -> task.getEndTime().get()));
+        for (Task task : sortedTasks) {
+            while (!activeTasks.isEmpty() && !activeTasks.peek().getEndTime().get().isAfter(task.getStartTime().get())
+                    && !activeTasks.peek().getStartTime().equals(task.getStartTime())) {
+                activeTasks.poll();
+            }
+            activeTasks.stream()
+                    .filter(activeTask -> TaskSchedule.isTimeConflict(activeTask, task))
+                    .forEach(activeTask -> conflicts.add(new TimeConflict(activeTask, task)));
+            activeTasks.add(task);
+        }
+        return conflicts;
+    }
+
+    // Consistency report for tasks and subtasks of a task manager
+    public static List<TimeConflict> findConflicts(TaskManager taskManager) {
+        return findConflicts(Stream.concat(taskManager.getTaskList().stream(),
+                taskManager.getSubtaskList().stream()).toList());
+    }
+}
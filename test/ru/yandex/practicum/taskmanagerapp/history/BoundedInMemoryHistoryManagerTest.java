@@ -0,0 +1,65 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoundedInMemoryHistoryManagerTest extends HistoryManagerTest<InMemoryHistoryManager> {
+    private static final int MAX_SIZE = 3;
+
+    @BeforeEach
+    public void beforeEach() {
+        historyManager = new InMemoryHistoryManager(MAX_SIZE);
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "Test task #" + id, "description", TaskStatus.NEW, TEST_START_TIME, TEST_DURATION);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyViewedTask() {
+        Task task4 = task(103);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.add(task4);
+
+        assertEquals(List.of(task3, task1, task4), historyManager.getHistory(), "Task history mismatch");
+    }
+
+    @Test
+    void shouldReuseSlotsAfterRemoval() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.remove(100);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.remove(101);
+        historyManager.add(task2);
+
+        assertEquals(List.of(task3, task1, task2), historyManager.getHistory(), "Task history mismatch");
+    }
+
+    @Test
+    void shouldKeepLongUnboundedHistory() {
+        final int historySize = 100_000;
+        InMemoryHistoryManager unboundedHistory = new InMemoryHistoryManager();
+        for (int i = 0; i < historySize; i++) {
+            unboundedHistory.add(task(i));
+        }
+        for (int i = 0; i < historySize; i += 2) {
+            unboundedHistory.remove(i);
+        }
+
+        List<Task> history = unboundedHistory.getHistory();
+        assertEquals(historySize / 2, history.size(), "Wrong history size");
+        assertEquals(1, history.getFirst().getId(), "Wrong first task");
+        assertEquals(historySize - 1, history.getLast().getId(), "Wrong last task");
+    }
+}
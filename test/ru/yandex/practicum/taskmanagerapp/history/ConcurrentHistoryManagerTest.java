@@ -0,0 +1,112 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrentHistoryManagerTest extends HistoryManagerTest<ConcurrentHistoryManager> {
+    @BeforeEach
+    public void beforeEach() {
+        historyManager = new ConcurrentHistoryManager(new InMemoryHistoryManager(), 4);
+    }
+
+    @Test
+    void shouldKeepRecencyOrderAfterDrain() {
+        final int taskCount = 1000;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task(i, "Test task #" + i, "description", TaskStatus.NEW, TEST_START_TIME, TEST_DURATION);
+            tasks.add(task);
+            historyManager.add(task);
+        }
+        historyManager.add(tasks.getFirst());
+        historyManager.drain();
+
+        List<Task> expected = new ArrayList<>(tasks.subList(1, taskCount));
+        expected.add(tasks.getFirst());
+        assertEquals(expected, historyManager.getHistory(), "Task history mismatch");
+    }
+
+    @Test
+    void shouldRecordViewsFromManyThreads() throws Exception {
+        final int threadCount = 8;
+        final int viewCount = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < viewCount; i++) {
+                    int id = thread * viewCount + i % 100;
+                    historyManager.add(new Task(id, "Test task", "description", TaskStatus.NEW,
+                            TEST_START_TIME, TEST_DURATION));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(threadCount * 100, history.size(), "Wrong history size");
+        assertEquals(threadCount * 100, new HashSet<>(history).size(), "History should not contain duplicates");
+    }
+
+    // Views and removals are ordered by a lock as in the task managers: a task is removed after all its views
+    @Test
+    void shouldNotRestoreRemovedTask() throws Exception {
+        final int threadCount = 8;
+        final int taskCount = 200;
+        historyManager = new ConcurrentHistoryManager(new InMemoryHistoryManager(), 1);
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        AtomicInteger removedCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            futures.add(executor.submit(() -> {
+                while (removedCount.get() < taskCount) {
+                    lock.readLock().lock();
+                    try {
+                        int id = removedCount.get();    // the first task not removed yet
+                        if (id < taskCount) {
+                            historyManager.add(new Task(id, "Test task", "description", TaskStatus.NEW,
+                                    TEST_START_TIME, TEST_DURATION));
+                        }
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+            }));
+        }
+        for (int id = 0; id < taskCount; id++) {
+            Thread.sleep(1);
+            lock.writeLock().lock();
+            try {
+                historyManager.remove(id);
+                removedCount.incrementAndGet();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(List.of(), historyManager.getHistory(), "Removed tasks should not be restored");
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IntSlotMapTest {
+    @Test
+    void shouldBehaveAsHashMap() {
+        IntSlotMap map = new IntSlotMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(500) - 250;
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.getOrDefault(key, IntSlotMap.NO_VALUE), map.remove(key), "Wrong removed value");
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), map.size(), "Wrong map size");
+        for (int key = -250; key < 250; key++) {
+            assertEquals(expected.getOrDefault(key, IntSlotMap.NO_VALUE), map.get(key), "Wrong value");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.taskmanagerapp.history;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionHistoryManagerTest extends HistoryManagerTest<SessionHistoryManager> {
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private static class TestClock extends Clock {
+        private Instant instant = Instant.EPOCH;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+    }
+
+    private final TestClock clock = new TestClock();
+
+    @BeforeEach
+    public void beforeEach() {
+        historyManager = new SessionHistoryManager(3, 5, IDLE_TIMEOUT, clock);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        historyManager.clearCurrentSession();
+    }
+
+    private List<Task> getHistory(String sessionId) {
+        historyManager.setCurrentSession(sessionId);
+        return historyManager.getHistory();
+    }
+
+    private void add(String sessionId, Task task) {
+        historyManager.setCurrentSession(sessionId);
+        historyManager.add(task);
+    }
+
+    @Test
+    void shouldKeepSeparateHistoryForEverySession() {
+        add("client1", task1);
+        add("client2", task2);
+        add("client1", task3);
+
+        assertEquals(List.of(task1, task3), getHistory("client1"), "Task history mismatch");
+        assertEquals(List.of(task2), getHistory("client2"), "Task history mismatch");
+        assertTrue(getHistory("client3").isEmpty(), "Task history of new session should be empty");
+    }
+
+    @Test
+    void shouldBindSessionPerManager() {
+        SessionHistoryManager other = new SessionHistoryManager(3, 5, IDLE_TIMEOUT, clock);
+        add("client1", task1);
+        other.add(task2);
+
+        assertEquals(SessionHistoryManager.DEFAULT_SESSION, other.getCurrentSession(), "Session of other manager should not be bound");
+        assertEquals(List.of(task1), getHistory("client1"), "Task history mismatch");
+        assertTrue(getHistory(SessionHistoryManager.DEFAULT_SESSION).isEmpty(), "Default session should be empty");
+    }
+
+    @Test
+    void shouldRemoveTaskFromEverySession() {
+        add("client1", task1);
+        add("client2", task1);
+        add("client2", task2);
+        historyManager.remove(task1.getId());
+
+        assertTrue(getHistory("client1").isEmpty(), "Task should be removed");
+        assertEquals(List.of(task2), getHistory("client2"), "Task history mismatch");
+        assertEquals(1, historyManager.getTotalRecords(), "Wrong total number of records");
+    }
+
+    @Test
+    void shouldEvictIdleSessions() {
+        add("client1", task1);
+        clock.advance(IDLE_TIMEOUT.dividedBy(2));
+        add("client2", task2);
+        clock.advance(IDLE_TIMEOUT.dividedBy(2));
+
+        assertTrue(getHistory("client1").isEmpty(), "Idle session should be evicted");
+        assertEquals(List.of(task2), getHistory("client2"), "Task history mismatch");
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedSessionsOverBudget() {
+        add("client1", task1);
+        add("client1", task2);
+        add("client2", task1);
+        add("client2", task2);
+        add("client1", task3);
+        add("client2", task3);
+
+        assertEquals(1, historyManager.getSessionCount(), "Least recently used session should be evicted");
+        assertEquals(List.of(task1, task2, task3), getHistory("client2"), "Task history mismatch");
+        assertEquals(3, historyManager.getTotalRecords(), "Wrong total number of records");
+    }
+}
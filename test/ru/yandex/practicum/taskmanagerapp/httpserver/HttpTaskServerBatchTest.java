@@ -0,0 +1,168 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.Managers;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.ShardedTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerBatchTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofDays(1);
+
+    public HttpTaskServerBatchTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private JsonObject operation(String type, Task item) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("type", type);
+        operation.add("item", gson.toJsonTree(item));
+        return operation;
+    }
+
+    private JsonObject operation(String type, int id) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("type", type);
+        operation.addProperty("id", id);
+        return operation;
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<Integer> getStatuses(HttpResponse<String> response) {
+        List<Integer> statuses = new ArrayList<>();
+        JsonParser.parseString(response.body()).getAsJsonArray()
+                .forEach(result -> statuses.add(result.getAsJsonObject().get("status").getAsInt()));
+        return statuses;
+    }
+
+    @Test
+    public void applyEachOperation() throws IOException, InterruptedException {
+        int taskId = taskManager.addTask(new Task("Test task #1", "Test task #1", TEST_START_TIME, TEST_DURATION));
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("ADD_EPIC", new Epic("Test epic", "Test epic")));
+        operations.add(operation("ADD_SUBTASK", new Subtask("Test subtask", "Test subtask",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION, -1)));
+        operations.add(operation("ADD_TASK", new Task("Test task #2", "Test task #2", TEST_START_TIME,
+                TEST_DURATION)));
+        operations.add(operation("REMOVE_TASK", 1));
+        operations.add(operation("REMOVE_TASK", taskId));
+        HttpResponse<String> response = post("/batch", operations.toString());
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        assertEquals(List.of(200, 200, 406, 404, 200), getStatuses(response), "Operation statuses mismatch");
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        int epicId = results.get(0).getAsJsonObject().get("id").getAsInt();
+        int subtaskId = results.get(1).getAsJsonObject().get("id").getAsInt();
+        assertEquals(List.of(subtaskId), taskManager.getEpic(epicId).getSubtaskIds(), "Epic subtasks mismatch");
+        assertTrue(taskManager.getTaskList().isEmpty(), "Task should be removed");
+    }
+
+    @Test
+    public void applyOperationsAtomically() throws IOException, InterruptedException {
+        JsonArray operations = new JsonArray();
+        operations.add(operation("ADD_TASK", new Task("Test task #1", "Test task #1", TEST_START_TIME,
+                TEST_DURATION)));
+        operations.add(operation("REMOVE_EPIC", 1));
+        operations.add(operation("ADD_TASK", new Task("Test task #2", "Test task #2",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION)));
+        HttpResponse<String> response = post("/batch?atomic=true", operations.toString());
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        assertEquals(List.of(424, 404, 424), getStatuses(response), "Operation statuses mismatch");
+        assertTrue(taskManager.getTaskList().isEmpty(), "No task should be added");
+
+        operations.remove(1);
+        response = post("/batch?atomic=true", operations.toString());
+        assertEquals(List.of(200, 200), getStatuses(response), "Operation statuses mismatch");
+        assertEquals(2, taskManager.getTaskList().size(), "Tasks should be added");
+    }
+
+    @Test
+    public void applyOperationsAtomicallyOnSeveralShards() throws IOException, InterruptedException {
+        taskServer.stop();
+        ShardedTaskManager shardedManager = new ShardedTaskManager(4, Managers.getSessionHistory());
+        taskServer = new HttpTaskServer(shardedManager);
+        taskServer.start();
+        int taskId1 = shardedManager.addTask(new Task("Test task #1", "Test task #1", TEST_START_TIME,
+                TEST_DURATION));
+        int taskId2 = shardedManager.addTask(new Task("Test task #2", "Test task #2",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION));
+        int epicId = shardedManager.addEpic(new Epic("Test epic", "Test epic"));
+
+        // the removed task frees the time of the updated one
+        Task updatedTask = new Task(taskId1, "Updated task", "Test task #1", TaskStatus.DONE,
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION);
+        JsonArray operations = new JsonArray();
+        operations.add(operation("UPDATE_TASK", updatedTask));
+        operations.add(operation("REMOVE_TASK", taskId2));
+        operations.add(operation("ADD_SUBTASK", new Subtask("Test subtask", "Test subtask", TEST_START_TIME,
+                TEST_DURATION, epicId)));
+        operations.add(operation("ADD_TASK", new Task("Test task #3", "Test task #3",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION)));
+        HttpResponse<String> response = post("/batch?atomic=true", operations.toString());
+        assertEquals(List.of(424, 424, 424, 406), getStatuses(response), "Operation statuses mismatch");
+        assertEquals(2, shardedManager.getTaskList().size(), "Batch should not be applied");
+
+        operations.remove(3);
+        response = post("/batch?atomic=true", operations.toString());
+        assertEquals(List.of(200, 200, 200), getStatuses(response), "Operation statuses mismatch");
+        assertEquals(List.of(updatedTask), shardedManager.getTaskList(), "Tasks mismatch");
+        assertEquals(1, shardedManager.getEpic(epicId).getSubtaskIds().size(), "Subtask should be added");
+        assertEquals(2, shardedManager.getPrioritizedTasks().size(), "Schedule mismatch");
+        shardedManager.shutdown();
+    }
+
+    @Test
+    public void postMalformedBatch() throws IOException, InterruptedException {
+        for (String body : List.of("{}", "[{\"type\":\"UNKNOWN\"}]", "[{\"type\":\"REMOVE_TASK\",\"id\":\"x\"}]")) {
+            assertEquals(400, post("/batch", body).statusCode(), "Wrong code has been returned for " + body);
+        }
+    }
+}
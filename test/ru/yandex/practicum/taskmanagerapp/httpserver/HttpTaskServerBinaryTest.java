@@ -0,0 +1,134 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerBinaryTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(30);
+
+    public HttpTaskServerBinaryTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Accept", accept)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static Optional<String> getContentType(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type");
+    }
+
+    private void addTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            taskManager.addTask(new Task("Test task #" + i, "Test task #" + i,
+                    TEST_START_TIME.plusHours(i), TEST_DURATION));
+        }
+    }
+
+    @Test
+    public void getBinaryList() throws IOException, InterruptedException {
+        addTasks(200);
+
+        // the second response is taken from the cache
+        for (int i = 0; i < 2; i++) {
+            HttpResponse<byte[]> response = get("/tasks", TaskBinaryCodec.CONTENT_TYPE);
+            assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+            assertEquals(Optional.of(TaskBinaryCodec.CONTENT_TYPE), getContentType(response), "Wrong content type");
+            assertEquals(taskManager.getTaskList(),
+                    TaskBinaryCodec.readList(new ByteArrayInputStream(response.body())), "Task list mismatch");
+        }
+
+        HttpResponse<byte[]> response = get("/tasks", "application/json");
+        assertEquals(gson.toJson(taskManager.getTaskList()), new String(response.body(), StandardCharsets.UTF_8),
+                "JSON must not be taken from binary cache");
+    }
+
+    @Test
+    public void negotiateMediaType() throws IOException, InterruptedException {
+        addTasks(1);
+
+        assertTrue(getContentType(get("/tasks", "*/*")).orElseThrow().startsWith("application/json"),
+                "JSON must be sent by default");
+        assertTrue(getContentType(get("/tasks", "application/json, " + TaskBinaryCodec.CONTENT_TYPE + ";q=0.5"))
+                .orElseThrow().startsWith("application/json"), "Preferred JSON must be sent");
+        assertEquals(Optional.of(TaskBinaryCodec.CONTENT_TYPE),
+                getContentType(get("/tasks", "application/json;q=0.5, " + TaskBinaryCodec.CONTENT_TYPE)),
+                "Preferred binary encoding must be sent");
+        assertTrue(getContentType(get("/tasks?limit=1", TaskBinaryCodec.CONTENT_TYPE)).orElseThrow()
+                .startsWith("application/json"), "Page has no binary encoding");
+        assertTrue(getContentType(get("/tasks?fields=id", TaskBinaryCodec.CONTENT_TYPE)).orElseThrow()
+                .startsWith("application/json"), "Projection has no binary encoding");
+    }
+
+    @Test
+    public void postBinaryItems() throws IOException, InterruptedException {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "Test epic"));
+        Subtask subtask = new Subtask("Test subtask", "Test subtask", TEST_START_TIME, TEST_DURATION, epicId);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        TaskBinaryCodec.write(subtask, body);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/subtasks"))
+                .header("Content-Type", TaskBinaryCodec.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        int subtaskId = gson.fromJson(response.body(), Task.class).getId();
+
+        HttpResponse<byte[]> getResponse = get("/subtasks/" + subtaskId, TaskBinaryCodec.CONTENT_TYPE);
+        assertEquals(taskManager.getSubtask(subtaskId), TaskBinaryCodec.readItem(
+                new ByteArrayInputStream(getResponse.body()), Subtask.class), "Subtask mismatch");
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Content-Type", TaskBinaryCodec.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Subtask must not be posted as task");
+    }
+}
@@ -0,0 +1,127 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerCompressionTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public HttpTaskServerCompressionTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private void addTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            taskManager.addTask(new Task("Test task #" + i, "Test task #" + i,
+                    TEST_START_TIME.plusHours(i), Duration.ofMinutes(30)));
+        }
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET();
+        if (acceptEncoding != null) {
+            builder.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String readBody(HttpResponse<byte[]> response) throws IOException {
+        if (response.headers().firstValue("Content-Encoding").isEmpty()) {
+            return new String(response.body(), StandardCharsets.UTF_8);
+        }
+        assertEquals(Optional.of("gzip"), response.headers().firstValue("Content-Encoding"), "Unknown encoding");
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void longResponseIsCompressed() throws IOException, InterruptedException {
+        addTasks(500);
+        String expectedBody = gson.toJson(taskManager.getTaskList());
+
+        // the first response is compressed on the fly, the second one is taken from the cache
+        for (int i = 0; i < 2; i++) {
+            HttpResponse<byte[]> response = get("/tasks", "deflate, gzip;q=0.8");
+            assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+            assertEquals(Optional.of("gzip"), response.headers().firstValue("Content-Encoding"),
+                    "Response must be compressed");
+            assertTrue(response.body().length < expectedBody.length() / 4, "Response is compressed poorly");
+            assertEquals(expectedBody, readBody(response), "Incorrect task list");
+        }
+        assertEquals(1, taskServer.getResponseCache().getStats().hits(), "Second response must be cached");
+    }
+
+    @Test
+    public void longUncachedResponseIsCompressed() throws IOException, InterruptedException {
+        addTasks(100);
+        taskManager.getTaskList().forEach(task -> taskManager.getTask(task.getId()));
+
+        HttpResponse<byte[]> response = get("/history", "gzip");
+        assertEquals(Optional.of("gzip"), response.headers().firstValue("Content-Encoding"),
+                "Response must be compressed");
+        assertEquals(gson.toJson(taskManager.getHistory()), readBody(response), "Incorrect history");
+    }
+
+    @Test
+    public void shortResponseIsNotCompressed() throws IOException, InterruptedException {
+        addTasks(1);
+
+        HttpResponse<byte[]> response = get("/tasks", "gzip");
+        assertEquals(Optional.empty(), response.headers().firstValue("Content-Encoding"),
+                "Short response must not be compressed");
+        assertEquals(Optional.of(String.valueOf(response.body().length)),
+                response.headers().firstValue("Content-Length"), "Short response must have known length");
+        assertEquals(gson.toJson(taskManager.getTaskList()), readBody(response), "Incorrect task list");
+    }
+
+    @Test
+    public void responseIsNotCompressedWithoutGzipAccepted() throws IOException, InterruptedException {
+        addTasks(500);
+
+        for (String acceptEncoding : new String[]{null, "deflate", "gzip;q=0"}) {
+            HttpResponse<byte[]> response = get("/tasks", acceptEncoding);
+            assertEquals(Optional.empty(), response.headers().firstValue("Content-Encoding"),
+                    "Response must not be compressed");
+            assertEquals(gson.toJson(taskManager.getTaskList()), readBody(response), "Incorrect task list");
+        }
+    }
+}
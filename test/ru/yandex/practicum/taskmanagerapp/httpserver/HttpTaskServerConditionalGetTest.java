@@ -0,0 +1,142 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerConditionalGetTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofDays(1);
+
+    public HttpTaskServerConditionalGetTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> get(String path, String eTag) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET();
+        if (eTag != null) {
+            builder.header("If-None-Match", eTag);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding, String eTag)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("Accept", accept)
+                .header("Accept-Encoding", acceptEncoding)
+                .GET();
+        if (eTag != null) {
+            builder.header("If-None-Match", eTag);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String getETag(HttpResponse<?> response) {
+        return response.headers().firstValue("ETag").orElseThrow(() -> new AssertionError("No ETag"));
+    }
+
+    @Test
+    public void getUnchangedTaskListIsNotModified() throws IOException, InterruptedException {
+        taskManager.addTask(new Task("Test task #1", "Test task #1", TEST_START_TIME, TEST_DURATION));
+
+        HttpResponse<String> response = get("/tasks", null);
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        String eTag = getETag(response);
+
+        response = get("/tasks", eTag);
+        assertEquals(304, response.statusCode(), "Wrong code has been returned.");
+        assertEquals(eTag, getETag(response), "ETag must be kept");
+        assertTrue(response.body().isEmpty(), "Not modified response must have no body");
+
+        taskManager.addTask(new Task("Test task #2", "Test task #2", TEST_START_TIME.plus(TEST_DURATION),
+                TEST_DURATION));
+        response = get("/tasks", eTag);
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        assertNotEquals(eTag, getETag(response), "ETag must be changed");
+    }
+
+    @Test
+    public void getUnchangedItemIsNotModified() throws IOException, InterruptedException {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "Test epic"));
+
+        String eTag = getETag(get("/epics/" + epicId, null));
+        assertEquals(304, get("/epics/" + epicId, eTag).statusCode(), "Wrong code has been returned.");
+        assertEquals(2, taskManager.getHotItems().getFirst().views(), "Not modified item view must be counted");
+
+        taskManager.addSubtask(new Subtask("Test subtask", "Test subtask", TEST_START_TIME, TEST_DURATION, epicId));
+        assertEquals(200, get("/epics/" + epicId, eTag).statusCode(), "Epic with new subtask must be modified");
+    }
+
+    @Test
+    public void getPrioritizedDependsOnTasksAndSubtasks() throws IOException, InterruptedException {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "Test epic"));
+
+        String eTag = getETag(get("/prioritized", null));
+        Epic updatedEpic = new Epic("Updated epic", "Test epic");
+        updatedEpic.setId(epicId);
+        taskManager.updateEpic(updatedEpic);
+        assertEquals(304, get("/prioritized", eTag).statusCode(), "Wrong code has been returned.");
+
+        taskManager.addSubtask(new Subtask("Test subtask", "Test subtask", TEST_START_TIME, TEST_DURATION, epicId));
+        assertEquals(200, get("/prioritized", eTag).statusCode(), "Wrong code has been returned.");
+    }
+
+    @Test
+    public void representationsHaveTheirOwnETags() throws IOException, InterruptedException {
+        taskManager.addTask(new Task("Test task #1", "Test task #1", TEST_START_TIME, TEST_DURATION));
+        String binary = TaskBinaryCodec.CONTENT_TYPE;
+
+        String jsonETag = getETag(get("/tasks", "application/json", "identity", null));
+        String gzipETag = getETag(get("/tasks", "application/json", "gzip", null));
+        String binaryETag = getETag(get("/tasks", binary, "identity", null));
+        String binaryGzipETag = getETag(get("/tasks", binary, "gzip", null));
+        assertEquals(4, Set.of(jsonETag, gzipETag, binaryETag, binaryGzipETag).size(),
+                "Every representation must have its own tag");
+
+        assertEquals(304, get("/tasks", "application/json", "gzip", gzipETag).statusCode(),
+                "Tag of the same representation must match");
+        assertEquals(200, get("/tasks", "application/json", "gzip", jsonETag).statusCode(),
+                "Tag of another representation must not match");
+        assertEquals(200, get("/tasks", binary, "identity", jsonETag).statusCode(),
+                "Tag of another representation must not match");
+    }
+
+    @Test
+    public void getNonExistingItemWithETag() throws IOException, InterruptedException {
+        assertEquals(404, get("/subtasks/1", "*").statusCode(), "Wrong code has been returned.");
+    }
+}
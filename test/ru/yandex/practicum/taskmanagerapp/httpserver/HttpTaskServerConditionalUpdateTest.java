@@ -0,0 +1,158 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerConditionalUpdateTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(30);
+
+    public HttpTaskServerConditionalUpdateTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private String getETag(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).headers().firstValue("ETag")
+                .orElseThrow(() -> new AssertionError("No ETag"));
+    }
+
+    private HttpResponse<String> post(String path, Object item, String ifMatch)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(item)));
+        if (ifMatch != null) {
+            builder.header("If-Match", ifMatch);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> delete(String path, String ifMatch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header("If-Match", ifMatch)
+                .DELETE()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void rejectUpdateOfStaleVersion() throws IOException, InterruptedException {
+        int id = taskManager.addTask(new Task("Test task", "Test task", TEST_START_TIME, TEST_DURATION));
+        String eTag = getETag("/tasks/" + id);
+        Task firstUpdate = new Task(id, "First editor", "Test task", TaskStatus.IN_PROGRESS, TEST_START_TIME,
+                TEST_DURATION);
+        Task secondUpdate = new Task(id, "Second editor", "Test task", TaskStatus.DONE, TEST_START_TIME,
+                TEST_DURATION);
+
+        HttpResponse<String> response = post("/tasks/" + id, firstUpdate, eTag);
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        String newETag = response.headers().firstValue("ETag").orElseThrow(() -> new AssertionError("No ETag"));
+        assertEquals(getETag("/tasks/" + id), newETag, "ETag of the new version must be returned");
+
+        assertEquals(412, post("/tasks/" + id, secondUpdate, eTag).statusCode(), "Lost update must be rejected");
+        assertEquals(412, post("/tasks/" + id, secondUpdate, "W/" + newETag).statusCode(),
+                "Weak tag must not match");
+        assertEquals(firstUpdate, taskManager.getTask(id), "First update must be kept");
+
+        assertEquals(200, post("/tasks/" + id, secondUpdate, "\"other\", " + newETag).statusCode(),
+                "Any of the listed tags may match");
+        HttpRequest gzipRequest = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks/" + id))
+                .header("Accept-Encoding", "gzip").GET().build();
+        String gzipETag = client.send(gzipRequest, HttpResponse.BodyHandlers.ofByteArray()).headers()
+                .firstValue("ETag").orElseThrow(() -> new AssertionError("No ETag"));
+        assertNotEquals(getETag("/tasks/" + id), gzipETag, "Gzip representation must have its own tag");
+        assertEquals(200, post("/tasks/" + id, firstUpdate, gzipETag).statusCode(),
+                "Tag of any representation may match");
+        assertEquals(200, post("/tasks/" + id, firstUpdate, "*").statusCode(), "Any version matches *");
+        assertEquals(200, post("/tasks/" + id, secondUpdate, null).statusCode(), "Update without If-Match");
+        assertEquals(404, post("/tasks/" + (id + 1), new Task("Unknown task", "Test task", null, TEST_DURATION),
+                null).statusCode(), "Unknown task");
+    }
+
+    @Test
+    public void rejectConditionalRequestsToMissingItems() throws IOException, InterruptedException {
+        int id = taskManager.addTask(new Task("Test task", "Test task", TEST_START_TIME, TEST_DURATION));
+        String eTag = getETag("/tasks/" + id);
+        Task unknownTask = new Task("Unknown task", "Test task", null, TEST_DURATION);
+
+        assertEquals(412, post("/tasks/" + (id + 1), unknownTask, "*").statusCode(),
+                "* must not match a missing task");
+        assertEquals(412, post("/tasks/" + (id + 1), unknownTask, eTag).statusCode(),
+                "Tag must not match a missing task");
+        assertEquals(412, post("/epics/" + (id + 1), new Epic("Unknown epic", "Test epic"), "*").statusCode(),
+                "* must not match a missing epic");
+        assertEquals(412, delete("/subtasks/" + (id + 1), "*").statusCode(), "* must not match a missing subtask");
+        assertEquals(200, delete("/tasks/" + id, "*").statusCode(), "* matches an existing task");
+        assertEquals(412, delete("/tasks/" + id, "*").statusCode(), "* must not match a removed task");
+    }
+
+    @Test
+    public void rejectUpdateOfChangedEpic() throws IOException, InterruptedException {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "Test epic"));
+        String eTag = getETag("/epics/" + epicId);
+        int subtaskId = taskManager.addSubtask(new Subtask("Test subtask", "Test subtask", TEST_START_TIME,
+                TEST_DURATION, epicId));
+
+        Epic epic = taskManager.getEpic(epicId);
+        assertEquals(412, post("/epics/" + epicId, epic, eTag).statusCode(),
+                "Epic changed by its subtask must not be updated with a stale version");
+        assertEquals(200, post("/epics/" + epicId, epic, getETag("/epics/" + epicId)).statusCode(),
+                "Wrong code has been returned.");
+
+        String subtaskETag = getETag("/subtasks/" + subtaskId);
+        Subtask subtask = taskManager.getSubtask(subtaskId);
+        assertEquals(200, post("/subtasks/" + subtaskId, subtask, subtaskETag).statusCode(),
+                "Wrong code has been returned.");
+        assertEquals(412, post("/subtasks/" + subtaskId, subtask, subtaskETag).statusCode(),
+                "Lost update must be rejected");
+    }
+
+    @Test
+    public void rejectRemovalOfStaleVersion() throws IOException, InterruptedException {
+        int id = taskManager.addTask(new Task("Test task", "Test task", TEST_START_TIME, TEST_DURATION));
+        String eTag = getETag("/tasks/" + id);
+        taskManager.updateTask(new Task(id, "Updated task", "Test task", TaskStatus.DONE, TEST_START_TIME,
+                TEST_DURATION));
+
+        assertEquals(412, delete("/tasks/" + id, eTag).statusCode(), "Removal of a stale version must be rejected");
+        assertEquals(1, taskManager.getTaskList().size(), "Task must be kept");
+        assertEquals(200, delete("/tasks/" + id, getETag("/tasks/" + id)).statusCode(),
+                "Wrong code has been returned.");
+        assertTrue(taskManager.getTaskList().isEmpty(), "Task must be removed");
+    }
+}
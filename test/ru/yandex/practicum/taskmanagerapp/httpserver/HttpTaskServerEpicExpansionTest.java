@@ -0,0 +1,137 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerEpicExpansionTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    class SubtaskListTypeToken extends TypeToken<List<Subtask>> {
+    }
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofDays(1);
+
+    int epicId;
+    List<Subtask> subtasks;
+
+    public HttpTaskServerEpicExpansionTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+
+        epicId = taskManager.addEpic(new Epic("Test epic #1", "Test epic #1"));
+        taskManager.addEpic(new Epic("Test epic #2", "Test epic #2"));
+        for (int i = 0; i < 3; i++) {
+            taskManager.addSubtask(new Subtask("Test subtask #" + i, "Test subtask #" + i,
+                    TEST_START_TIME.plus(TEST_DURATION.multipliedBy(i)), TEST_DURATION, epicId));
+        }
+        subtasks = taskManager.getEpicSubtasks(epicId);
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void getEpicSubtasks() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/epics/" + epicId + "/subtasks");
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        assertEquals(subtasks, gson.fromJson(response.body(), new SubtaskListTypeToken().getType()),
+                "Subtasks of epic mismatch");
+        assertEquals(subtasks, taskManager.getHistory(), "Subtask views must be recorded");
+
+        assertEquals(404, get("/epics/" + (epicId + 100) + "/subtasks").statusCode(),
+                "Subtasks of unknown epic must not be found");
+        assertEquals(400, get("/tasks/" + epicId + "/subtasks").statusCode(), "Tasks have no subtasks");
+    }
+
+    @Test
+    public void getExpandedEpic() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/epics/" + epicId + "?expand=subtasks&recordViews=false");
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        JsonObject expandedEpic = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(taskManager.getEpicList().getFirst(), gson.fromJson(expandedEpic.get("epic"), Epic.class),
+                "Epic mismatch");
+        assertEquals(subtasks, gson.fromJson(expandedEpic.get("subtasks"), new SubtaskListTypeToken().getType()),
+                "Subtasks of epic mismatch");
+        assertEquals(List.of(taskManager.getEpicList().getFirst()), taskManager.getHistory(),
+                "Only epic view must be recorded");
+    }
+
+    @Test
+    public void getExpandedEpicList() throws IOException, InterruptedException {
+        for (String path : List.of("/epics?expand=subtasks", "/epics?expand=subtasks&limit=10")) {
+            HttpResponse<String> response = get(path);
+            assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+            JsonArray expandedEpics = path.contains("limit")
+                    ? JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray("items")
+                    : JsonParser.parseString(response.body()).getAsJsonArray();
+
+            assertEquals(2, expandedEpics.size(), "Wrong number of epics");
+            assertEquals(subtasks, gson.fromJson(expandedEpics.get(0).getAsJsonObject().get("subtasks"),
+                    new SubtaskListTypeToken().getType()), "Subtasks of epic #1 mismatch");
+            assertTrue(expandedEpics.get(1).getAsJsonObject().getAsJsonArray("subtasks").isEmpty(),
+                    "Epic #2 has no subtasks");
+        }
+        assertTrue(taskManager.getHistory().isEmpty(), "List views must not be recorded");
+    }
+
+    @Test
+    public void expandedEpicIsNotStale() throws IOException, InterruptedException {
+        get("/epics?expand=subtasks");
+        Subtask subtask = subtasks.getFirst();
+        taskManager.updateSubtask(new Subtask(subtask.getId(), "Updated subtask", subtask.getDescription(),
+                subtask.getStatus(), TEST_START_TIME, TEST_DURATION, epicId));
+
+        HttpResponse<String> response = get("/epics?expand=subtasks");
+        assertTrue(response.body().contains("Updated subtask"), "Expanded subtask must be updated");
+    }
+
+    @Test
+    public void getEpicWithBadExpansion() throws IOException, InterruptedException {
+        for (String query : List.of("expand=tasks", "expand=subtasks&recordViews=no")) {
+            assertEquals(400, get("/epics/" + epicId + "?" + query).statusCode(),
+                    "Wrong code has been returned for " + query);
+        }
+    }
+}
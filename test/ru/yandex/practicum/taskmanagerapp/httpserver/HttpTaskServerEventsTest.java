@@ -0,0 +1,181 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerEventsTest {
+    private static final String END_OF_STREAM = "end of stream";
+
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(30);
+
+    public HttpTaskServerEventsTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private Task createTask(int i) {
+        return new Task("Test task #" + i, "Test task #" + i, TEST_START_TIME.plusHours(i), TEST_DURATION);
+    }
+
+    // Lines of an event stream read in the background
+    private BlockingQueue<String> openStream(String lastEventId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/events")).GET();
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines()).thenAccept(response -> {
+            assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+            assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"),
+                    "Wrong content type");
+            response.body().forEach(lines::add);
+        }).whenComplete((result, e) -> lines.add(END_OF_STREAM));
+        return lines;
+    }
+
+    // Fields of the next event, comments are skipped
+    private static List<String> nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            String line = lines.poll(5, TimeUnit.SECONDS);
+            assertNotNull(line, "Event has not been received");
+            if (line.equals(END_OF_STREAM)) {
+                return null;
+            }
+            if (line.isEmpty() && !fields.isEmpty()) {
+                return fields;
+            }
+            if (!line.isEmpty() && !line.startsWith(":")) {
+                fields.add(line);
+            }
+        }
+    }
+
+    private static JsonObject getData(List<String> event) {
+        return JsonParser.parseString(event.get(2).substring("data: ".length())).getAsJsonObject();
+    }
+
+    // Waits until the stream is subscribed, the first comment is sent after subscription
+    private static void awaitSubscription(BlockingQueue<String> lines) throws InterruptedException {
+        assertEquals(":", lines.poll(5, TimeUnit.SECONDS), "Stream should start with a comment");
+    }
+
+    @Test
+    public void streamChanges() throws IOException, InterruptedException {
+        BlockingQueue<String> lines = openStream(null);
+        awaitSubscription(lines);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(createTask(0))))
+                .build();
+        int id = gson.fromJson(client.send(request, HttpResponse.BodyHandlers.ofString()).body(), Task.class).getId();
+
+        List<String> event = nextEvent(lines);
+        assertEquals("id: " + taskManager.getItemVersion(id), event.get(0), "Event id should be the item version");
+        assertEquals("event: created", event.get(1), "Wrong event type");
+        JsonObject data = getData(event);
+        assertEquals("TASK", data.get("type").getAsString(), "Wrong item type");
+        assertEquals(id, data.get("id").getAsInt(), "Wrong item id");
+        assertEquals(taskManager.getTask(id), gson.fromJson(data.get("item"), Task.class), "Task mismatch");
+
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks/" + id)).DELETE().build();
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Wrong code has been returned.");
+        event = nextEvent(lines);
+        assertEquals("event: deleted", event.get(1), "Wrong event type");
+        assertFalse(getData(event).has("item"), "Deleted item should not be sent");
+    }
+
+    @Test
+    public void resumeFromLastEventId() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            taskManager.addTask(createTask(i));
+        }
+        long lastEventId = taskManager.getEventBus().getLastEventId();
+
+        BlockingQueue<String> lines = openStream(String.valueOf(lastEventId - 2));
+        assertEquals("id: " + (lastEventId - 1), nextEvent(lines).getFirst(), "Missed event should be replayed");
+        assertEquals("id: " + lastEventId, nextEvent(lines).getFirst(), "Missed event should be replayed");
+
+        lines = openStream(String.valueOf(lastEventId + 100));
+        List<String> event = nextEvent(lines);
+        assertEquals(List.of("id: " + lastEventId, "event: reset", "data:"), event, "Stream should be reset");
+    }
+
+    @Test
+    public void streamsDoNotHoldRequestThreads() throws IOException, InterruptedException {
+        taskServer.stop();
+        taskServer = new HttpTaskServer(taskManager, HttpTaskServer.Transport.NIO, HttpTaskServer.ExecutorType.PLATFORM,
+                1, 0);
+        taskServer.start();
+        BlockingQueue<String> first = openStream(null);
+        BlockingQueue<String> second = openStream(null);
+        awaitSubscription(first);
+        awaitSubscription(second);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(createTask(0))))
+                .build();
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Request should be served while streams are open");
+        assertEquals("event: created", nextEvent(first).get(1), "Wrong event type");
+        assertEquals("event: created", nextEvent(second).get(1), "Wrong event type");
+    }
+
+    @Test
+    public void endStreamsOnStop() throws IOException, InterruptedException {
+        BlockingQueue<String> lines = openStream(null);
+        awaitSubscription(lines);
+        taskServer.stop();
+        assertNull(nextEvent(lines), "Stream should end");
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/events"))
+                .header("Last-Event-ID", "x")
+                .GET()
+                .build();
+        taskServer = new HttpTaskServer(taskManager);
+        taskServer.start();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Malformed Last-Event-ID");
+    }
+}
@@ -0,0 +1,115 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.Managers;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.ShardedTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HttpTaskServerExecutorTest {
+    private static final int REQUEST_COUNT = 200;
+
+    ShardedTaskManager taskManager = new ShardedTaskManager(4, Managers.getSessionHistory());
+    HttpClient client = HttpClient.newHttpClient();
+    HttpTaskServer taskServer;
+
+    Gson gson = HttpTaskServer.getGson();
+
+    @AfterEach
+    public void shutDown() {
+        if (taskServer != null) {
+            taskServer.stop();
+        }
+        taskManager.shutdown();
+    }
+
+    private void addTasksConcurrently(TaskManager taskManager) {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            Task task = new Task("Test task #" + i, "Test task #" + i,
+                    LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i), Duration.ofMinutes(30));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode(), "Wrong code has been returned.");
+        }
+        assertEquals(REQUEST_COUNT, taskManager.getTaskList().size(), "Wrong task number.");
+        assertEquals(REQUEST_COUNT, taskManager.getPrioritizedTasks().size(), "Wrong prioritized task number.");
+    }
+
+    @Test
+    public void concurrentRequestsOnVirtualThreads() throws IOException {
+        taskServer = new HttpTaskServer(taskManager);
+        assertEquals(HttpTaskServer.ExecutorType.VIRTUAL, taskServer.getExecutorType(), "Wrong default executor");
+        taskServer.start();
+
+        addTasksConcurrently(taskManager);
+    }
+
+    @Test
+    public void singleRequestThreadForNotThreadSafeManager() throws IOException {
+        TaskManager inMemoryManager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(inMemoryManager);
+        assertEquals(HttpTaskServer.ExecutorType.SINGLE, taskServer.getExecutorType(),
+                "Not thread-safe manager must not be used concurrently");
+        taskServer.start();
+
+        addTasksConcurrently(inMemoryManager);
+    }
+
+    @Test
+    public void concurrentRequestsOnPlatformPool() throws IOException {
+        taskServer = new HttpTaskServer(taskManager, HttpTaskServer.ExecutorType.PLATFORM, 4, 64);
+        taskServer.start();
+
+        addTasksConcurrently(taskManager);
+    }
+
+    @Test
+    public void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HttpTaskServer(taskManager, HttpTaskServer.ExecutorType.PLATFORM, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HttpTaskServer(taskManager, HttpTaskServer.ExecutorType.VIRTUAL, 1, -1));
+    }
+
+    @Test
+    public void startFromCommandLine() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks")).GET().build();
+
+        taskServer = HttpTaskServer.launch(null);
+        assertEquals(HttpTaskServer.Transport.JDK, taskServer.getTransport(), "Wrong default transport");
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Wrong code has been returned.");
+        taskServer.stop();
+
+        taskServer = HttpTaskServer.launch(new String[]{"--transport=nio", "--executor=platform", "--threads=2"});
+        assertEquals(HttpTaskServer.Transport.NIO, taskServer.getTransport(), "Wrong transport");
+        assertEquals(HttpTaskServer.ExecutorType.PLATFORM, taskServer.getExecutorType(), "Wrong executor");
+        assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Wrong code has been returned.");
+
+        assertThrows(IllegalArgumentException.class, () -> HttpTaskServer.main(new String[]{"--threads"}));
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.Managers;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HttpTaskServerHistorySessionsTest {
+    TaskManager taskManager = new InMemoryTaskManager(Managers.getSessionHistory());
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    class TaskListTypeToken extends TypeToken<List<Task>> {
+    }
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofDays(1);
+
+    public HttpTaskServerHistorySessionsTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> get(String path, String clientId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .header(HistorySessionFilter.CLIENT_ID_HEADER, clientId)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void getHistoryOfClient() throws IOException, InterruptedException {
+        int taskId1 = taskManager.addTask(new Task("Test task #1", "Test task #1", TEST_START_TIME, TEST_DURATION));
+        int taskId2 = taskManager.addTask(new Task("Test task #2", "Test task #2",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION));
+
+        get("/tasks/" + taskId1, "client1");
+        get("/tasks/" + taskId2, "client2");
+        get("/tasks/" + taskId2, "client1");
+
+        HttpResponse<String> response = get("/history", "client1");
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        List<Task> history = gson.fromJson(response.body(), new TaskListTypeToken().getType());
+        assertEquals(List.of(taskId1, taskId2), history.stream().map(Task::getId).toList(), "Incorrect history");
+
+        response = get("/history", "client2");
+        history = gson.fromJson(response.body(), new TaskListTypeToken().getType());
+        assertEquals(List.of(taskId2), history.stream().map(Task::getId).toList(), "Incorrect history");
+    }
+}
@@ -0,0 +1,185 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.Managers;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.ShardedTaskManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerNioTest {
+    ShardedTaskManager taskManager = new ShardedTaskManager(4, Managers.getSessionHistory());
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager, HttpTaskServer.Transport.NIO,
+            HttpTaskServer.ExecutorType.VIRTUAL, HttpTaskServer.DEFAULT_POOL_SIZE, HttpTaskServer.DEFAULT_BACKLOG);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(30);
+
+    public HttpTaskServerNioTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+        taskManager.shutdown();
+    }
+
+    private Task createTask(int i) {
+        return new Task("Test task #" + i, "Test task #" + i, TEST_START_TIME.plusHours(i), TEST_DURATION);
+    }
+
+    // Sends raw requests on one connection and reads the response lines until the connection is closed
+    private static List<String> exchangeRaw(String requests) throws IOException {
+        try (Socket socket = new Socket("localhost", 8080)) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write(requests.getBytes(StandardCharsets.ISO_8859_1));
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            return reader.lines().toList();
+        }
+    }
+
+    @Test
+    public void handleRequests() throws IOException, InterruptedException {
+        assertEquals(HttpTaskServer.Transport.NIO, taskServer.getTransport(), "Wrong transport");
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(createTask(0))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        int id = gson.fromJson(response.body(), Task.class).getId();
+
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks/" + id)).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        assertEquals(taskManager.getTask(id), gson.fromJson(response.body(), Task.class), "Task mismatch");
+
+        request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/unknown")).GET().build();
+        assertEquals(404, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Path without context must not be found");
+    }
+
+    @Test
+    public void sendLargeCompressedResponse() throws IOException, InterruptedException {
+        for (int i = 0; i < 2000; i++) {
+            taskManager.addTask(createTask(i));
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        String body = new String(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals(gson.toJson(taskManager.getTaskList()), body, "Task list mismatch");
+    }
+
+    @Test
+    public void receiveLargeRequestBody() throws IOException, InterruptedException {
+        String description = "Large description ".repeat(20_000);     // many times the read buffer size
+        Task task = new Task("Test task", description, TEST_START_TIME, TEST_DURATION);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        int id = gson.fromJson(response.body(), Task.class).getId();
+        assertEquals(description, taskManager.getTask(id).getDescription(), "Body must be read completely");
+    }
+
+    @Test
+    public void handlePipelinedRequests() throws IOException {
+        taskManager.addTask(createTask(0));
+        String get = "GET /tasks HTTP/1.1\r\nHost: localhost\r\n\r\n";
+        List<String> lines = exchangeRaw(get + get + "GET /history HTTP/1.1\r\nConnection: close\r\n\r\n");
+        // bodies do not end with a line break, so status lines may follow them on the same line
+        assertEquals(3, lines.stream().filter(line -> line.contains("HTTP/1.1 200 OK")).count(),
+                "Every pipelined request must be answered");
+        assertTrue(lines.contains("Connection: close"), "Connection must be closed on request");
+    }
+
+    @Test
+    public void continueBeforeRequestBody() throws IOException {
+        byte[] body = gson.toJson(createTask(0)).getBytes(StandardCharsets.UTF_8);
+        try (Socket socket = new Socket("localhost", 8080)) {
+            socket.setSoTimeout(5000);
+            OutputStream output = socket.getOutputStream();
+            output.write(("POST /tasks HTTP/1.1\r\nExpect: 100-continue\r\nContent-Length: " + body.length
+                    + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            assertEquals("HTTP/1.1 100 Continue", reader.readLine(), "Client must be asked for the body");
+            assertEquals("", reader.readLine(), "Interim response must be empty");
+
+            output.write(body);
+            assertEquals("HTTP/1.1 200 OK", reader.readLine(), "Wrong status line");
+        }
+        assertEquals(1, taskManager.getTaskList().size(), "Task must be added");
+    }
+
+    @Test
+    public void rejectMalformedRequests() throws IOException {
+        assertEquals("HTTP/1.1 400 Bad Request", exchangeRaw("GARBAGE\r\n\r\n").getFirst(),
+                "Malformed request line");
+        assertEquals("HTTP/1.1 411 Length Required",
+                exchangeRaw("POST /tasks HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n").getFirst(),
+                "Chunked request body is not supported");
+        assertEquals("HTTP/1.1 413 Content Too Large",
+                exchangeRaw("POST /tasks HTTP/1.1\r\nContent-Length: 999999999\r\n\r\n").getFirst(),
+                "Too long request body");
+        String head = "GET /tasks HTTP/1.1\r\nX-Long: ";   // unterminated headers filling the whole buffer
+        assertEquals("HTTP/1.1 431 Request Header Fields Too Large",
+                exchangeRaw(head + "x".repeat(NioHttpServer.BUFFER_SIZE - head.length())).getFirst(),
+                "Too long headers");
+    }
+
+    @Test
+    public void concurrentRequests() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(createTask(i))))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode(), "Wrong code has been returned.");
+        }
+        assertEquals(200, taskManager.getTaskList().size(), "Wrong task number.");
+    }
+}
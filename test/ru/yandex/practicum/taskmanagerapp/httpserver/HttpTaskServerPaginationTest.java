@@ -0,0 +1,125 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerPaginationTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    class TaskListTypeToken extends TypeToken<List<Task>> {
+    }
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofDays(1);
+
+    public HttpTaskServerPaginationTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private List<Integer> getIds(JsonObject page) {
+        List<Task> items = gson.fromJson(page.get("items"), new TaskListTypeToken().getType());
+        return items.stream().map(Task::getId).toList();
+    }
+
+    @Test
+    public void getTasksByPages() throws IOException, InterruptedException {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(taskManager.addTask(new Task("Test task #" + i, "Test task #" + i,
+                    TEST_START_TIME.plus(TEST_DURATION.multipliedBy(i)), TEST_DURATION)));
+        }
+
+        List<Integer> pagedIds = new ArrayList<>();
+        String path = "/tasks?limit=2";
+        int pageCount = 0;
+        while (path != null) {
+            HttpResponse<String> response = get(path);
+            assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+            JsonObject page = JsonParser.parseString(response.body()).getAsJsonObject();
+            pagedIds.addAll(getIds(page));
+            JsonElement cursor = page.get("nextCursor");
+            path = (cursor == null) ? null : "/tasks?limit=2&cursor=" + cursor.getAsString();
+            pageCount++;
+        }
+
+        assertEquals(ids, pagedIds, "Paged tasks mismatch");
+        assertEquals(3, pageCount, "Page count mismatch");
+    }
+
+    @Test
+    public void getSubtasksByFilter() throws IOException, InterruptedException {
+        int epicId1 = taskManager.addEpic(new Epic("Test epic #1", "Test epic #1"));
+        int epicId2 = taskManager.addEpic(new Epic("Test epic #2", "Test epic #2"));
+        int subtaskId1 = taskManager.addSubtask(new Subtask("Test subtask #1", "desc",
+                TEST_START_TIME, TEST_DURATION, epicId1));
+        taskManager.addSubtask(new Subtask("Test subtask #2", "desc",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION, epicId2));
+        int subtaskId3 = taskManager.addSubtask(new Subtask("Test subtask #3", "desc",
+                TEST_START_TIME.plus(TEST_DURATION.multipliedBy(2)), TEST_DURATION, epicId1));
+
+        HttpResponse<String> response = get("/subtasks?epicId=" + epicId1);
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        assertEquals(List.of(subtaskId1, subtaskId3), getIds(JsonParser.parseString(response.body()).getAsJsonObject()),
+                "Subtasks of epic mismatch");
+
+        response = get("/subtasks?status=NEW&from=" + TEST_START_TIME.plus(TEST_DURATION.multipliedBy(2))
+                + "&to=" + TEST_START_TIME.plus(TEST_DURATION.multipliedBy(3)));
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        JsonObject page = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(List.of(subtaskId3), getIds(page), "Subtasks in time window mismatch");
+        assertNull(page.get("nextCursor"), "The last page must have no cursor");
+    }
+
+    @Test
+    public void getPageWithBadParameters() throws IOException, InterruptedException {
+        for (String query : List.of("limit=0", "limit=x", "limit=100000", "cursor=bad", "status=UNKNOWN",
+                "from=yesterday", "epicId=x")) {
+            assertEquals(400, get("/epics?" + query).statusCode(), "Wrong code has been returned for " + query);
+        }
+    }
+}
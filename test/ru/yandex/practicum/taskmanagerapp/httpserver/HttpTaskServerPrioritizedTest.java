@@ -19,6 +19,7 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -76,4 +77,34 @@ public class HttpTaskServerPrioritizedTest {
         assertEquals(taskId2, prioritized.get(2).getId(), "Incorrect priority");
         assertEquals(subtaskId2, prioritized.get(3).getId(), "Incorrect priority");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getLongPrioritizedListIsStreamed() throws IOException, InterruptedException {
+        for (int i = 0; i < 5000; i++) {
+            taskManager.addTask(new Task("Test task #" + i, "Test task #" + i,
+                    TEST_START_TIME.plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        assertEquals(Optional.of("chunked"), response.headers().firstValue("Transfer-Encoding"),
+                "Response must be chunked");
+        assertEquals(gson.toJson(taskManager.getPrioritizedTasks()), response.body(), "Incorrect priority list");
+    }
+
+    @Test
+    public void postPrioritizedIsBadRequest() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Wrong code has been returned.");
+    }
+}
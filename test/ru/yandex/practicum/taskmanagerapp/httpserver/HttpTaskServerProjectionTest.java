@@ -0,0 +1,132 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerProjectionTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofDays(1);
+    protected static final String ALL_FIELDS =
+            "id,name,status,description,startTime,duration,endTime,subtaskIds,epicId";
+
+    int taskId;
+    int epicId;
+
+    public HttpTaskServerProjectionTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+
+        taskId = taskManager.addTask(new Task("Test task", "Long test task description",
+                TEST_START_TIME, TEST_DURATION));
+        epicId = taskManager.addEpic(new Epic("Test epic #1", "Test epic #1"));
+        taskManager.addEpic(new Epic("Test epic #2", "Test epic #2"));
+        taskManager.addSubtask(new Subtask("Test subtask", "Test subtask",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION, epicId));
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void getProjectedTask() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/tasks/" + taskId + "?fields=status,id,name");
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        JsonObject task = JsonParser.parseString(response.body()).getAsJsonObject();
+        assertEquals(Set.of("id", "name", "status"), task.keySet(), "Only requested fields must be sent");
+        assertEquals(taskId, task.get("id").getAsInt(), "Wrong task id");
+        assertEquals("NEW", task.get("status").getAsString(), "Wrong task status");
+    }
+
+    @Test
+    public void getProjectedLists() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/epics?fields=id,subtaskIds,endTime");
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        JsonArray epics = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(Set.of("id", "subtaskIds", "endTime"), epics.get(0).getAsJsonObject().keySet(),
+                "Epic with subtasks must have end time");
+        assertEquals(Set.of("id", "subtaskIds"), epics.get(1).getAsJsonObject().keySet(),
+                "Null fields must be omitted");
+
+        response = get("/epics?expand=subtasks&limit=1&fields=id,epicId");
+        JsonObject expandedEpic = JsonParser.parseString(response.body()).getAsJsonObject()
+                .getAsJsonArray("items").get(0).getAsJsonObject();
+        assertEquals(Set.of("id"), expandedEpic.getAsJsonObject("epic").keySet(), "Epic has no epicId");
+        assertEquals(Set.of("id", "epicId"),
+                expandedEpic.getAsJsonArray("subtasks").get(0).getAsJsonObject().keySet(),
+                "Subtask must have epicId");
+    }
+
+    @Test
+    public void allFieldsProjectionMatchesFullResponse() throws IOException, InterruptedException {
+        assertEquals(gson.toJson(taskManager.getTaskList()), get("/tasks?fields=" + ALL_FIELDS).body(),
+                "Tasks mismatch");
+        assertEquals(gson.toJson(taskManager.getEpicList()), get("/epics?fields=" + ALL_FIELDS).body(),
+                "Epics mismatch");
+        assertEquals(gson.toJson(taskManager.getSubtaskList()), get("/subtasks?fields=" + ALL_FIELDS).body(),
+                "Subtasks mismatch");
+        assertEquals(gson.toJson(taskManager.getPrioritizedTasks()),
+                get("/prioritized?fields=" + ALL_FIELDS).body(), "Prioritized tasks mismatch");
+    }
+
+    @Test
+    public void projectionsAreCachedSeparately() throws IOException, InterruptedException {
+        String projectedTasks = get("/tasks?fields=id").body();
+        String tasks = get("/tasks").body();
+
+        assertNotEquals(projectedTasks, tasks, "Full response must not be taken from projection");
+        assertEquals(projectedTasks, get("/tasks?fields=id").body(), "Projection mismatch");
+        assertEquals("[{\"id\":" + taskId + "}]", projectedTasks, "Projection mismatch");
+    }
+
+    @Test
+    public void getWithBadFields() throws IOException, InterruptedException {
+        for (String path : List.of("/tasks?fields=id,unknown", "/tasks/" + taskId + "?fields=", "/history?fields=x",
+                "/prioritized?fields=x")) {
+            assertEquals(400, get(path).statusCode(), "Wrong code has been returned for " + path);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.stats.HotItem;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HttpTaskServerStatsTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    class HotItemListTypeToken extends TypeToken<List<HotItem>> {
+    }
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofDays(1);
+
+    public HttpTaskServerStatsTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskManager.clear();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    public void getHotItemsTest() throws IOException, InterruptedException {
+        int taskId = taskManager.addTask(new Task("Test task #1", "Test task #1", TEST_START_TIME, TEST_DURATION));
+        int epicId = taskManager.addEpic(new Epic("Test epic #1", "Test epic #1"));
+        taskManager.getTask(taskId);
+        taskManager.getEpic(epicId);
+        taskManager.getEpic(epicId);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/stats/hot"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        List<HotItem> hotItems = gson.fromJson(response.body(), new HotItemListTypeToken().getType());
+        assertEquals(List.of(new HotItem(epicId, 2), new HotItem(taskId, 1)), hotItems, "Incorrect hot items");
+    }
+
+    @Test
+    public void getUnknownStatsTest() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/stats/cold"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(404, response.statusCode(), "Wrong code has been returned.");
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void getCacheStatsTest() throws IOException, InterruptedException {
+        int taskId = taskManager.addTask(new Task("Test task #1", "Test task #1", TEST_START_TIME, TEST_DURATION));
+
+        String body = get("/tasks").body();
+        assertEquals(body, get("/tasks").body(), "Cached response mismatch");
+        taskManager.removeTask(taskId);
+        assertEquals("[]", get("/tasks").body(), "Changed collection must not be taken from cache");
+
+        HttpResponse<String> response = get("/stats/cache");
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        ResponseCache.Stats stats = gson.fromJson(response.body(), ResponseCache.Stats.class);
+        assertEquals(1, stats.hits(), "Incorrect hit count");
+        assertEquals(2, stats.misses(), "Incorrect miss count");
+        assertEquals(1, stats.entries(), "Incorrect entry count");
+    }
+}
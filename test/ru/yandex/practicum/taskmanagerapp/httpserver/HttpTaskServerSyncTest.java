@@ -0,0 +1,94 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerSyncTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(30);
+
+    public HttpTaskServerSyncTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> sync(String query) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/sync" + query)).GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonObject syncSince(long version) throws IOException, InterruptedException {
+        HttpResponse<String> response = sync("?since=" + version);
+        assertEquals(200, response.statusCode(), "Wrong code has been returned.");
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    @Test
+    public void returnChangesSinceVersion() throws IOException, InterruptedException {
+        int taskId = taskManager.addTask(new Task("Test task", "Test task", TEST_START_TIME, TEST_DURATION));
+        JsonObject changes = syncSince(0);
+        assertTrue(changes.get("resync").getAsBoolean(), "Client without state should reload all items");
+        long version = changes.get("version").getAsLong();
+
+        int epicId = taskManager.addEpic(new Epic("Test epic", "Test epic"));
+        int subtaskId = taskManager.addSubtask(new Subtask("Test subtask", "Test subtask",
+                TEST_START_TIME.plusHours(1), TEST_DURATION, epicId));
+        taskManager.removeTask(taskId);
+
+        changes = syncSince(version);
+        assertFalse(changes.get("resync").getAsBoolean(), "Changes should be kept");
+        assertEquals(0, changes.getAsJsonArray("tasks").size(), "Removed task should not be returned");
+        assertEquals(taskManager.getEpic(epicId), gson.fromJson(changes.getAsJsonArray("epics").get(0), Epic.class),
+                "Epic mismatch");
+        assertEquals(taskManager.getSubtask(subtaskId),
+                gson.fromJson(changes.getAsJsonArray("subtasks").get(0), Subtask.class), "Subtask mismatch");
+        assertEquals(taskId, changes.getAsJsonArray("deleted").get(0).getAsInt(), "Removed task id mismatch");
+
+        version = changes.get("version").getAsLong();
+        changes = syncSince(version);
+        assertEquals(version, changes.get("version").getAsLong(), "Version should be kept");
+        assertEquals(0, changes.getAsJsonArray("epics").size() + changes.getAsJsonArray("deleted").size(),
+                "Nothing has been changed");
+        assertTrue(syncSince(version + 1).get("resync").getAsBoolean(), "Unknown version should cause resync");
+    }
+
+    @Test
+    public void rejectMalformedVersion() throws IOException, InterruptedException {
+        assertEquals(400, sync("").statusCode(), "Version is required");
+        assertEquals(400, sync("?since=abc").statusCode(), "Version must be a number");
+    }
+}
@@ -0,0 +1,131 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.InMemoryTaskManager;
+import ru.yandex.practicum.taskmanagerapp.taskmanager.TaskManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskServerUnixSocketTest {
+    TaskManager taskManager = new InMemoryTaskManager();
+    HttpTaskServer taskServer = new HttpTaskServer(taskManager);
+    HttpClient client = HttpClient.newHttpClient();
+    Path socketPath;
+
+    Gson gson = HttpTaskServer.getGson();
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(30);
+
+    public HttpTaskServerUnixSocketTest() throws IOException {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("testtm");
+        directory.toFile().deleteOnExit();
+        socketPath = directory.resolve("server.sock");
+        taskServer.listenOnUnixSocket(socketPath);
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    // Sends a request with Connection: close and returns the status line and the body
+    private String[] send(String method, String path, String body) throws IOException {
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            Channels.newOutputStream(channel).write((method + " " + path + " HTTP/1.1\r\nConnection: close\r\n"
+                    + "Content-Length: " + bodyBytes.length + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            Channels.newOutputStream(channel).write(bodyBytes);
+            String response = new String(Channels.newInputStream(channel).readAllBytes(), StandardCharsets.UTF_8);
+
+            int headEnd = response.indexOf("\r\n\r\n");
+            String head = response.substring(0, headEnd);
+            String responseBody = response.substring(headEnd + 4);
+            if (head.contains("Transfer-Encoding: chunked")) {
+                responseBody = decodeChunks(responseBody);
+            }
+            return new String[]{head.substring(0, head.indexOf("\r\n")), responseBody};
+        }
+    }
+
+    private static String decodeChunks(String chunked) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        InputStream input = new ByteArrayInputStream(chunked.getBytes(StandardCharsets.UTF_8));
+        while (true) {
+            StringBuilder size = new StringBuilder();
+            int b;
+            while ((b = input.read()) != '\r') {
+                size.append((char) b);
+            }
+            input.read();
+            int length = Integer.parseInt(size.toString(), 16);
+            if (length == 0) {
+                return body.toString(StandardCharsets.UTF_8);
+            }
+            body.write(input.readNBytes(length));
+            input.skipNBytes(2);
+        }
+    }
+
+    @Test
+    public void serveRequestsOnUnixSocket() throws IOException, InterruptedException {
+        Task task = new Task("Test task", "Test task", TEST_START_TIME, TEST_DURATION);
+        String[] response = send("POST", "/tasks", gson.toJson(task));
+        assertEquals("HTTP/1.1 200 OK", response[0], "Wrong status line");
+        int id = gson.fromJson(response[1], Task.class).getId();
+
+        response = send("GET", "/tasks/" + id, "");
+        assertEquals(taskManager.getTask(id), gson.fromJson(response[1], Task.class), "Task mismatch");
+        assertEquals("HTTP/1.1 404 Not Found", send("GET", "/tasks/" + (id + 1), "")[0], "Wrong status line");
+
+        // TCP serves the same manager
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks")).GET().build();
+        assertEquals(send("GET", "/tasks", "")[1], client.send(request, HttpResponse.BodyHandlers.ofString()).body(),
+                "Both sockets must return the same list");
+    }
+
+    @Test
+    public void socketFileIsDeletedOnStop() {
+        assertTrue(Files.exists(socketPath), "Socket file must be created");
+        assertThrows(IllegalStateException.class, () -> taskServer.listenOnUnixSocket(socketPath),
+                "Unix domain socket must be listened on once");
+
+        taskServer.stop();
+        assertFalse(Files.exists(socketPath), "Socket file must be deleted");
+    }
+
+    @Test
+    public void existingSocketFileIsNotReplaced() {
+        assertThrows(IOException.class, () -> NioHttpServer.create(UnixDomainSocketAddress.of(socketPath), 0),
+                "Socket file of another server must not be replaced");
+        assertTrue(Files.exists(socketPath), "Socket file must be kept");
+    }
+}
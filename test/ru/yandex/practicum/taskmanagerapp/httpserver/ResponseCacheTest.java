@@ -0,0 +1,73 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+    private static final byte[] BODY = new byte[100];
+
+    @Test
+    void shouldReturnEntryWithSameStamp() {
+        ResponseCache cache = new ResponseCache(10_000);
+        assertNull(cache.get("/tasks", new long[]{1}), "Empty cache should miss");
+
+        cache.put("/tasks", new long[]{1}, BODY);
+        assertSame(BODY, cache.get("/tasks", new long[]{1}), "Cached body mismatch");
+        assertNull(cache.get("/tasks", new long[]{2}), "Entry with other stamp should miss");
+        assertNull(cache.get("/epics", new long[]{1}), "Other key should miss");
+
+        ResponseCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits(), "Hit count mismatch");
+        assertEquals(3, stats.misses(), "Miss count mismatch");
+        assertEquals(1, stats.entries(), "Entry count mismatch");
+    }
+
+    @Test
+    void shouldReplaceEntryOfSameKey() {
+        ResponseCache cache = new ResponseCache(10_000);
+        cache.put("/tasks", new long[]{1}, BODY);
+        long size = cache.getStats().size();
+
+        byte[] newBody = new byte[100];
+        cache.put("/tasks", new long[]{2}, newBody);
+        assertSame(newBody, cache.get("/tasks", new long[]{2}), "Cached body mismatch");
+        assertEquals(size, cache.getStats().size(), "Cache size mismatch");
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntries() {
+        ResponseCache cache = new ResponseCache(600, 300);
+        for (int i = 0; i < 5; i++) {
+            cache.put("/tasks/" + i, new long[]{i}, BODY);
+            cache.get("/tasks/0", new long[]{0});
+        }
+
+        ResponseCache.Stats stats = cache.getStats();
+        assertTrue(stats.size() <= 600, "Cache size exceeds the limit");
+        assertNotNull(cache.get("/tasks/0", new long[]{0}), "Recently used entry should be kept");
+        assertNull(cache.get("/tasks/1", new long[]{1}), "Least recently used entry should be evicted");
+        assertNotNull(cache.get("/tasks/4", new long[]{4}), "Last entry should be kept");
+    }
+
+    @Test
+    void shouldNotCacheTooLongBody() {
+        ResponseCache cache = new ResponseCache(10_000, 1000);
+        cache.put("/tasks", new long[]{1}, new byte[1000]);
+        assertNull(cache.get("/tasks", new long[]{1}), "Too long body should not be cached");
+        assertEquals(0, cache.getStats().size(), "Cache should be empty");
+    }
+
+    @Test
+    void shouldKeepGzippedBody() {
+        ResponseCache cache = new ResponseCache(100_000);
+        byte[] body = new byte[10_000];
+        cache.put("/tasks", new long[]{1}, body);
+        long size = cache.getStats().size();
+
+        byte[] gzippedBody = cache.getGzipped("/tasks", cache.get("/tasks", new long[]{1}));
+        assertTrue(gzippedBody.length < body.length, "Body must be compressed");
+        assertSame(gzippedBody, cache.getGzipped("/tasks", body), "Gzipped body must be cached");
+        assertEquals(size + gzippedBody.length, cache.getStats().size(), "Cache size mismatch");
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouterTest {
+    private final Router<String> router = new Router<>("unknown")
+            .add("GET", "", "list")
+            .add("GET", "/{id}", "item")
+            .add("DELETE", "/{id}", "delete")
+            .add("GET", "/{id}/subtasks", "subitems")
+            .add("GET", "/{id}/subtasks/{subtaskId}", "subitem")
+            .add("GET", "/hot", "hot")
+            .add("GET", "/*", "any");
+
+    private Router.Match<String> match(String method, String path) {
+        return router.match(method, path, "/epics".length());
+    }
+
+    @Test
+    void matchRoutes() {
+        assertEquals("list", match("GET", "/epics").getRoute(), "Context path");
+        assertEquals("list", match("GET", "/epics/").getRoute(), "Trailing slash must be ignored");
+        assertEquals("item", match("GET", "/epics/15").getRoute(), "Item path");
+        assertEquals("delete", match("DELETE", "/epics/15//").getRoute(), "Item path with slashes");
+        assertEquals("subitems", match("GET", "/epics/15/subtasks").getRoute(), "Nested path");
+        assertEquals("hot", match("GET", "/epics/hot").getRoute(), "Literal path");
+        assertEquals("any", match("GET", "/epics/cold").getRoute(), "Wildcard path");
+    }
+
+    @Test
+    void getParameters() {
+        assertEquals(15, match("GET", "/epics/15").getInt("id"), "Wrong id");
+        assertEquals(-1, match("GET", "/epics/-1").getInt("id"), "Negative id");
+        assertEquals(Integer.MAX_VALUE, match("GET", "/epics/2147483647").getInt("id"), "Max id");
+
+        Router.Match<String> match = match("GET", "/epics/3/subtasks/4");
+        assertEquals("subitem", match.getRoute(), "Nested path with parameters");
+        assertEquals(3, match.getInt("id"), "Wrong id");
+        assertEquals(4, match.getInt("subtaskId"), "Wrong subtask id");
+        assertThrows(NoSuchElementException.class, () -> match.getInt("epicId"), "Unknown parameter");
+    }
+
+    @Test
+    void rejectUnknownPaths() {
+        for (String path : new String[]{"/epicsx", "/epics//15", "/epics/15/epics", "/epics/15/subtasks/x",
+                "/epics/1/2/3/4"}) {
+            assertEquals("unknown", match("GET", path).getRoute(), "Path must not match: " + path);
+        }
+        for (String path : new String[]{"/epics/1x", "/epics/-", "/epics/2147483648"}) {
+            assertEquals("any", match("GET", path).getRoute(), "Malformed id must fall through: " + path);
+        }
+        assertEquals("unknown", match("POST", "/epics/15").getRoute(), "Method must match");
+        assertThrows(NoSuchElementException.class, () -> match("GET", "/epicsx").getInt("id"),
+                "Unknown route has no parameters");
+    }
+
+    @Test
+    void rejectMalformedPatterns() {
+        for (String pattern : new String[]{"tasks", "/tasks/", "/tasks//{id}"}) {
+            assertThrows(IllegalArgumentException.class, () -> router.add("GET", pattern, "malformed"),
+                    "Pattern must be rejected: " + pattern);
+        }
+    }
+}
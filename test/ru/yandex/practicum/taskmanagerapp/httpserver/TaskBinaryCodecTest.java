@@ -0,0 +1,84 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskBinaryCodecTest {
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 9, 30);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(90);
+
+    private List<Task> getItems() {
+        return List.of(
+                new Task(1, "Test task", "Юникод 😀 \" \\", TaskStatus.NEW, TEST_START_TIME, TEST_DURATION),
+                new Task(-2, null, null, null, null, Duration.ZERO),
+                new Epic(Integer.MAX_VALUE, "Test epic", "", TaskStatus.IN_PROGRESS, LocalDateTime.of(1900, 1, 1, 0, 0),
+                        TEST_DURATION, TEST_START_TIME.plusSeconds(5), List.of(4, 5, Integer.MIN_VALUE)),
+                new Epic(6, "Empty epic", "Empty epic", TaskStatus.NEW, null, Duration.ZERO, null, List.of()),
+                new Subtask(4, "Test subtask", "Test subtask", TaskStatus.DONE, TEST_START_TIME,
+                        Duration.ofDays(1000), 3));
+    }
+
+    private static byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TaskBinaryCodec.write(value, output);
+        return output.toByteArray();
+    }
+
+    @Test
+    void readWrittenItems() throws IOException {
+        for (Task item : getItems()) {
+            byte[] body = encode(item);
+            assertTrue(TaskBinaryCodec.isEncoded(body), "Encoded body must be recognized");
+            assertEquals(item, TaskBinaryCodec.readItem(new ByteArrayInputStream(body), item.getClass()),
+                    "Item must be read back");
+        }
+        assertEquals(getItems(), TaskBinaryCodec.readList(new ByteArrayInputStream(encode(getItems()))),
+                "List must be read back");
+        assertEquals(List.of(), TaskBinaryCodec.readList(new ByteArrayInputStream(encode(List.of()))),
+                "Empty list must be read back");
+    }
+
+    @Test
+    void encodingIsCompact() throws IOException {
+        byte[] body = encode(getItems());
+        int jsonLength = HttpTaskServer.getGson().toJson(getItems()).getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(body.length * 2 < jsonLength, "Binary encoding must be at least twice shorter than JSON");
+    }
+
+    @Test
+    void canEncodeOnlyItems() {
+        assertTrue(TaskBinaryCodec.canEncode(getItems().getFirst()), "Item must be encodable");
+        assertTrue(TaskBinaryCodec.canEncode(getItems()), "List of items must be encodable");
+        assertFalse(TaskBinaryCodec.canEncode(List.of(1, 2)), "List of numbers must not be encodable");
+        assertFalse(TaskBinaryCodec.canEncode(Arrays.asList(getItems().getFirst(), null)),
+                "List with null must not be encodable");
+        assertFalse(TaskBinaryCodec.isEncoded("[]".getBytes(StandardCharsets.UTF_8)), "JSON must be recognized");
+    }
+
+    @Test
+    void readMalformedDocuments() throws IOException {
+        byte[] body = encode(getItems().get(2));
+        assertThrows(IOException.class,
+                () -> TaskBinaryCodec.readItem(new ByteArrayInputStream(body), Task.class), "Wrong item class");
+        assertThrows(IOException.class, () -> TaskBinaryCodec.readItem(
+                new ByteArrayInputStream(Arrays.copyOf(body, body.length - 1)), Epic.class), "Truncated body");
+        assertThrows(IOException.class, () -> TaskBinaryCodec.readList(new ByteArrayInputStream(body)),
+                "Item is not a list");
+        assertThrows(IOException.class, () -> TaskBinaryCodec.readItem(
+                new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), Task.class), "JSON body");
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.taskmanagerapp.httpserver;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTypeAdapterTest {
+    // Gson as configured before the hand-written codecs
+    Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
+            .create();
+    Gson gson = HttpTaskServer.getGson();
+
+    class TaskListTypeToken extends TypeToken<List<Task>> {
+    }
+
+    protected static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 9, 30);
+    protected static final Duration TEST_DURATION = Duration.ofMinutes(90);
+
+    private List<Task> getItems() {
+        return List.of(
+                new Task(1, "Test task", "Quotes \" \\ <b>&</b>\n\t\u0001 юникод 😀", TaskStatus.NEW,
+                        TEST_START_TIME, TEST_DURATION),
+                new Task(2, null, "", TaskStatus.DONE, null, Duration.ZERO),
+                new Epic(3, "Test epic", "Test epic", TaskStatus.IN_PROGRESS, TEST_START_TIME,
+                        TEST_DURATION, TEST_START_TIME.plus(TEST_DURATION).plusSeconds(5), List.of(4, 5)),
+                new Epic(6, "Empty epic", "Empty epic", TaskStatus.NEW, null, Duration.ZERO, null, List.of()),
+                new Subtask(4, "Test subtask", "Test subtask", TaskStatus.DONE,
+                        LocalDateTime.of(10000, 12, 31, 23, 59), Duration.ofDays(3), 3),
+                new Subtask(5, "Test subtask", "Test subtask", null, LocalDateTime.of(999, 2, 28, 0, 0),
+                        Duration.ofMinutes(1), 3));
+    }
+
+    @Test
+    void writeSameAsReflectiveGson() {
+        for (Task item : getItems()) {
+            assertEquals(reflectiveGson.toJson(item), gson.toJson(item), "Item JSON mismatch");
+        }
+        assertEquals(reflectiveGson.toJson(getItems()), gson.toJson(getItems()), "List JSON mismatch");
+    }
+
+    @Test
+    void readSameAsReflectiveGson() {
+        for (Task item : getItems()) {
+            String json = reflectiveGson.toJson(item);
+            assertEquals(reflectiveGson.fromJson(json, item.getClass()), gson.fromJson(json, item.getClass()),
+                    "Read item mismatch");
+            assertEquals(item, gson.fromJson(json, item.getClass()), "Item must be read back");
+        }
+        String json = reflectiveGson.toJson(getItems());
+        assertEquals(reflectiveGson.<List<Task>>fromJson(json, new TaskListTypeToken().getType()),
+                gson.fromJson(json, new TaskListTypeToken().getType()), "Read list mismatch");
+    }
+
+    @Test
+    void readUnusualValues() {
+        String json = "{\"id\":null,\"name\":true,\"status\":\"UNKNOWN\",\"unknown\":{\"a\":[1,2]},\"epicId\":\"7\","
+                + "\"startTime\":null,\"description\":\"desc\"}";
+        Subtask subtask = gson.fromJson(json, Subtask.class);
+        Subtask reflectiveSubtask = reflectiveGson.fromJson(json, Subtask.class);
+
+        assertEquals(reflectiveSubtask.getId(), subtask.getId(), "Id mismatch");
+        assertEquals(reflectiveSubtask.getName(), subtask.getName(), "Name mismatch");
+        assertEquals(reflectiveSubtask.getStatus(), subtask.getStatus(), "Unknown status must be null");
+        assertEquals(reflectiveSubtask.getEpicId(), subtask.getEpicId(), "Epic id mismatch");
+        assertEquals(Duration.ZERO, subtask.getDuration(), "Missing duration must be zero");
+        assertTrue(gson.fromJson("{}", Epic.class).getSubtaskIds().isEmpty(), "Missing subtask ids must be empty");
+        assertNull(gson.fromJson("null", Task.class), "Null must be read as null");
+    }
+
+    @Test
+    void parseDatesSameAsFormatter() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.uuuu HH:mm:ss");
+        for (String text : List.of("01.01.2025 00:00:00", "28.02.2025 23:59:59", "29.02.2025 10:00:00",
+                "31.04.2025 10:00:00", "01.01.+10000 00:00:00", "01.01.0000 00:00:00",
+                "31.12.2025 24:00:00")) {
+            assertEquals(LocalDateTime.parse(text, formatter), LocalDateTimeTypeAdapter.parse(text),
+                    "Parsed date mismatch for " + text);
+        }
+        for (String text : List.of("1.01.2025 00:00:00", "01.13.2025 00:00:00", "01.01.2025 25:00:00",
+                "01.01.2025T00:00:00", "01.01.2025 00:00", "01.01.12345 00:00:00")) {
+            assertThrows(RuntimeException.class, () -> LocalDateTimeTypeAdapter.parse(text),
+                    "Malformed date must not be parsed: " + text);
+        }
+    }
+}
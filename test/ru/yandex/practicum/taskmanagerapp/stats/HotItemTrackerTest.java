@@ -0,0 +1,67 @@
+package ru.yandex.practicum.taskmanagerapp.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotItemTrackerTest {
+    @Test
+    void shouldBeEmptyAfterInit() {
+        assertTrue(new HotItemTracker(3, 64, 1000).getHotItems().isEmpty(), "Tracker should be empty");
+    }
+
+    @Test
+    void shouldFindMostViewedItems() {
+        HotItemTracker tracker = new HotItemTracker(3, 1024, 1_000_000);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            tracker.record(1000 + random.nextInt(10_000));   // background noise
+            if (i % 10 == 0) {
+                tracker.record(1);
+            }
+            if (i % 20 == 0) {
+                tracker.record(2);
+            }
+            if (i % 40 == 0) {
+                tracker.record(3);
+            }
+        }
+
+        List<HotItem> hotItems = tracker.getHotItems();
+        assertEquals(List.of(1, 2, 3), hotItems.stream().map(HotItem::id).toList(), "Hot items mismatch");
+        assertTrue(hotItems.getFirst().views() >= 10_000, "Estimate should not be less than real count");
+    }
+
+    @Test
+    void shouldFollowRecentViews() {
+        HotItemTracker tracker = new HotItemTracker(1, 256, 1000);
+        for (int i = 0; i < 5000; i++) {
+            tracker.record(1);
+        }
+        for (int i = 0; i < 5000; i++) {
+            tracker.record(2);
+        }
+
+        assertEquals(2, tracker.getHotItems().getFirst().id(), "Recently viewed item should be the hottest");
+    }
+
+    @Test
+    void shouldGiveRemovedItemPlaceToOthers() {
+        HotItemTracker tracker = new HotItemTracker(2, 256, 1_000_000);
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1);
+            tracker.record(2);
+        }
+        tracker.record(3);
+        assertEquals(List.of(1, 2), tracker.getHotItems().stream().map(HotItem::id).toList(),
+                "Rare item should not displace hot ones");
+
+        tracker.remove(1);
+        tracker.record(3);
+        assertEquals(List.of(2, 3), tracker.getHotItems().stream().map(HotItem::id).toList(),
+                "Next viewed item should take the place of the removed one");
+    }
+}
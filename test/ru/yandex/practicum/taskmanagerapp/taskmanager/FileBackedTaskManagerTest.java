@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.taskmanagerapp.exception.ManagerLoadException;
 import ru.yandex.practicum.taskmanagerapp.exception.ManagerSaveException;
+import ru.yandex.practicum.taskmanagerapp.history.SessionHistoryManager;
 import ru.yandex.practicum.taskmanagerapp.task.Epic;
 import ru.yandex.practicum.taskmanagerapp.task.Subtask;
 import ru.yandex.practicum.taskmanagerapp.task.Task;
@@ -13,6 +14,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -83,12 +85,155 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals(List.of(subtask), tm.getSubtaskList(), "Subtask list mismatch");
     }
 
+    @Test
+    void saveBatchToDataFile() {
+        TaskBatch batch = new TaskBatch();
+        int epicRef = batch.addEpic(new Epic("Test epic", "description"));
+        batch.addSubtask(new Subtask("Test subtask #1", "description", TEST_START_TIME, TEST_DURATION, epicRef));
+        batch.addSubtask(new Subtask("Test subtask #2", "description",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION, epicRef));
+        taskManager.applyBatch(batch);
+
+        FileBackedTaskManager tm = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(taskManager.getEpicList(), tm.getEpicList(), "Epic list mismatch");
+        assertEquals(taskManager.getSubtaskList(), tm.getSubtaskList(), "Subtask list mismatch");
+    }
+
+    @Test
+    void saveEachBatchToDataFile() {
+        TaskBatch batch = new TaskBatch();
+        int epicRef = batch.addEpic(new Epic("Test epic", "description"));
+        batch.addSubtask(new Subtask("Test subtask", "description", TEST_START_TIME, TEST_DURATION, epicRef));
+        batch.removeTask(TEST_ID);
+        taskManager.applyEach(batch);
+
+        FileBackedTaskManager tm = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(taskManager.getEpicList(), tm.getEpicList(), "Epic list mismatch");
+        assertEquals(taskManager.getSubtaskList(), tm.getSubtaskList(), "Subtask list mismatch");
+    }
+
+    @Test
+    void shouldGenerateNewIdsAfterLoading() {
+        int taskId = taskManager.addTask(new Task("Test task #1", "description", TEST_START_TIME, TEST_DURATION));
+
+        FileBackedTaskManager tm = FileBackedTaskManager.loadFromFile(tempFile);
+        int newTaskId = tm.addTask(new Task("Test task #2", "description",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION));
+        assertNotEquals(taskId, newTaskId, "Loaded task should not be replaced");
+        assertEquals(2, tm.getTaskList().size(), "Wrong number of tasks");
+    }
+
+    @Test
+    void restoreHistoryAfterLoading() throws IOException {
+        File historyFile = File.createTempFile("testtmhistory", ".tmp");
+        historyFile.deleteOnExit();
+        FileBackedTaskManager tm1 = new FileBackedTaskManager(tempFile, historyFile, Managers.getDefaultHistory());
+        int taskId = tm1.addTask(new Task("Test task", "description", TEST_START_TIME, TEST_DURATION));
+        int epicId = tm1.addEpic(new Epic("Test epic", "description"));
+        int subtaskId = tm1.addSubtask(new Subtask("Test subtask", "description",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION, epicId));
+        tm1.getSubtask(subtaskId);
+        tm1.getTask(taskId);
+        tm1.getEpic(epicId);
+        tm1.getSubtask(subtaskId);
+        tm1.closeHistory();
+
+        FileBackedTaskManager tm2 = FileBackedTaskManager.loadFromFile(tempFile, historyFile);
+        assertEquals(List.of(taskId, epicId, subtaskId), tm2.getHistory().stream().map(Task::getId).toList(),
+                "History mismatch");
+        tm2.closeHistory();
+    }
+
+    @Test
+    void compactHistoryFile() throws IOException {
+        final int viewCount = 10_000;
+        File historyFile = File.createTempFile("testtmhistory", ".tmp");
+        historyFile.deleteOnExit();
+        FileBackedTaskManager tm1 = new FileBackedTaskManager(tempFile, historyFile, Managers.getDefaultHistory());
+        int taskId1 = tm1.addTask(new Task("Test task #1", "description", TEST_START_TIME, TEST_DURATION));
+        int taskId2 = tm1.addTask(new Task("Test task #2", "description",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION));
+        for (int i = 0; i < viewCount; i++) {
+            tm1.getTask((i % 3 == 0) ? taskId2 : taskId1);
+        }
+        tm1.closeHistory();
+        assertTrue(historyFile.length() < viewCount * 12L / 2, "History file should be compacted");
+
+        FileBackedTaskManager tm2 = FileBackedTaskManager.loadFromFile(tempFile, historyFile);
+        assertEquals(List.of(taskId1, taskId2), tm2.getHistory().stream().map(Task::getId).toList(),
+                "History mismatch");
+        tm2.closeHistory();
+    }
+
+    @Test
+    void compactHistoryFileOfAllSessions() throws IOException {
+        final int viewCount = 10_000;
+        File historyFile = File.createTempFile("testtmhistory", ".tmp");
+        historyFile.deleteOnExit();
+        SessionHistoryManager sessions = (SessionHistoryManager) Managers.getSessionHistory();
+        FileBackedTaskManager tm1 = new FileBackedTaskManager(tempFile, historyFile, sessions);
+        int taskId1 = tm1.addTask(new Task("Test task #1", "description", TEST_START_TIME, TEST_DURATION));
+        int taskId2 = tm1.addTask(new Task("Test task #2", "description",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION));
+        try {
+            sessions.setCurrentSession("first");
+            tm1.getTask(taskId1);
+            sessions.setCurrentSession("second");
+            for (int i = 0; i < viewCount; i++) {
+                tm1.getTask(taskId2);
+            }
+        } finally {
+            sessions.clearCurrentSession();
+        }
+        tm1.closeHistory();
+        assertTrue(historyFile.length() < viewCount * 12L / 2, "History file should be compacted");
+
+        FileBackedTaskManager tm2 = FileBackedTaskManager.loadFromFile(tempFile, historyFile);
+        assertEquals(List.of(taskId1, taskId2), tm2.getHistory().stream().map(Task::getId).toList(),
+                "Views of all sessions should be kept");
+        tm2.closeHistory();
+    }
+
+    @Test
+    void compactionDropsViewsOfRemovedItems() throws IOException {
+        File historyFile = File.createTempFile("testtmhistory", ".tmp");
+        historyFile.deleteOnExit();
+        FileBackedTaskManager tm = new FileBackedTaskManager(tempFile, historyFile, Managers.getDefaultHistory());
+        List<Integer> taskIds = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            taskIds.add(tm.addTask(new Task("Test task #" + i, "description", null, TEST_DURATION)));
+            tm.getTask(taskIds.getLast());
+        }
+        int epicId = tm.addEpic(new Epic("Test epic", "description"));
+        tm.getEpic(epicId);
+        int keptId = taskIds.removeLast();
+        taskIds.forEach(tm::removeTask);
+        tm.clearEpics();
+        for (int i = 0; i < 2000; i++) {
+            tm.getTask(keptId);
+        }
+        tm.closeHistory();
+
+        HistoryLog historyLog = new HistoryLog(historyFile);
+        assertEquals(List.of(keptId), historyLog.read(), "Views of removed items should be compacted away");
+        historyLog.close();
+    }
+
     @Test
     public void saveToBadDataFile() {
         taskManager = new FileBackedTaskManager(new File("bad\\//bad"), Managers.getDefaultHistory());
         assertThrows(ManagerSaveException.class, taskManager::clear, "Bad file saving should throw exception");
     }
 
+    @Test
+    public void loadFromDataFileWithTimeConflict() throws IOException {
+        Files.writeString(tempFile.toPath(), CSVFILE_HEADER + "\n"
+                + "100,TASK,NEW,Test task #1,description,01.01.2025 00:00,1440,\n"
+                + "101,TASK,NEW,Test task #2,description,01.01.2025 12:00,1440,\n");
+        assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(tempFile),
+                "Loading of conflicting tasks should throw exception");
+    }
+
     @Test
     public void loadFromBadDataFile() {
         assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(new File("bad\\bad")),
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.exception.TimeConflictException;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedTaskManagerTest extends TaskManagerTest<ShardedTaskManager> {
+    private static final int SHARD_COUNT = 4;
+
+    @BeforeEach
+    public void beforeEach() {
+        taskManager = new ShardedTaskManager(SHARD_COUNT, Managers.getDefaultHistory());
+    }
+
+    @AfterEach
+    public void afterEach() {
+        taskManager.shutdown();
+    }
+
+    @Test
+    public void shouldCheckTimeConflictsAcrossShards() {
+        taskManager.addTask(new Task("Test task #1", "description", TEST_START_TIME, Duration.ofDays(2)));
+        for (int i = 1; i < SHARD_COUNT; i++) {
+            final int shift = i;
+            assertThrows(TimeConflictException.class, () -> taskManager.addTask(
+                    new Task("Test task", "description", TEST_START_TIME.plusHours(shift), Duration.ofHours(1))),
+                    "Should throw exception for time conflict with task of another shard");
+        }
+        assertEquals(1, taskManager.getTaskList().size(), "Task list is wrong");
+    }
+
+    @Test
+    public void shouldKeepSubtasksWithTheirEpic() {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        taskManager.addTask(new Task("Test task", "description", null, Duration.ZERO));
+        List<Integer> subtaskIds = new ArrayList<>();
+        for (int i = 0; i < SHARD_COUNT * 2; i++) {
+            subtaskIds.add(taskManager.addSubtask(new Subtask("Test subtask #" + i, "description",
+                    TEST_START_TIME.plusDays(i), Duration.ofDays(1), epicId)));
+        }
+
+        assertEquals(subtaskIds, taskManager.getEpic(epicId).getSubtaskIds(), "Epic subtasks mismatch");
+        assertEquals(TEST_START_TIME, taskManager.getEpic(epicId).getStartTime().orElseThrow(),
+                "Epic start time mismatch");
+        subtaskIds.forEach(id -> assertEquals(epicId, taskManager.getSubtask(id).getEpicId(), "Wrong epic id"));
+    }
+
+    @Test
+    public void shouldAddTasksConcurrently() throws Exception {
+        final int taskCount = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(SHARD_COUNT);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            final int shift = i;
+            futures.add(executor.submit(() -> taskManager.addTask(new Task("Test task", "description",
+                    TEST_START_TIME.plusHours(shift), Duration.ofHours(1)))));
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Integer> future : futures) {
+            ids.add(future.get());
+        }
+        executor.shutdown();
+
+        assertEquals(taskCount, ids.size(), "Task ids should be unique");
+        assertEquals(taskCount, taskManager.getTaskList().size(), "Wrong number of tasks");
+        assertEquals(taskCount, taskManager.getPrioritizedTasks().size(), "Wrong number of prioritized tasks");
+    }
+}
@@ -0,0 +1,153 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventBusTest {
+    private final TaskEventBus bus = new TaskEventBus(8);
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            bus.publish(TaskEvent.Kind.UPDATED, TaskType.TASK, 100 + i, null);
+        }
+    }
+
+    private static List<Long> ids(List<TaskEvent> events) {
+        return events.stream().map(TaskEvent::id).toList();
+    }
+
+    @Test
+    void shouldDeliverEventsInOrder() throws InterruptedException {
+        TaskEventBus.Subscription subscription = bus.subscribe(4);
+        assertFalse(subscription.isReset(), "New subscription should not be reset");
+        assertEquals(List.of(), subscription.poll(0, TimeUnit.MILLISECONDS), "Nothing has been published");
+
+        publish(3);
+        assertEquals(List.of(1L, 2L, 3L), ids(subscription.poll(0, TimeUnit.MILLISECONDS)), "Events mismatch");
+        publish(1);
+        assertEquals(List.of(4L), ids(subscription.poll(0, TimeUnit.MILLISECONDS)), "Only new events expected");
+        assertEquals(4, bus.getLastEventId(), "Wrong last event id");
+    }
+
+    @Test
+    void shouldWakeUpWaitingSubscriber() throws InterruptedException {
+        TaskEventBus.Subscription subscription = bus.subscribe(4);
+        CompletableFuture<List<TaskEvent>> events = CompletableFuture.supplyAsync(() -> {
+            try {
+                return subscription.poll(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(50);
+        publish(1);
+        assertEquals(List.of(1L), ids(events.join()), "Waiting subscriber should get the event");
+
+        TaskEventBus.Subscription closed = bus.subscribe(4);
+        CompletableFuture.runAsync(closed::close);
+        assertNull(closed.poll(10, TimeUnit.SECONDS), "Closed subscription should return null");
+        assertFalse(closed.isDropped(), "Closed subscription is not dropped");
+    }
+
+    @Test
+    void shouldDropLaggingSubscriber() throws InterruptedException {
+        TaskEventBus.Subscription slow = bus.subscribe(4);
+        TaskEventBus.Subscription fast = bus.subscribe(4);
+        publish(4);
+        assertEquals(4, fast.poll(0, TimeUnit.MILLISECONDS).size(), "Lag within the limit is allowed");
+        publish(1);
+
+        assertNull(slow.poll(0, TimeUnit.MILLISECONDS), "Lagging subscriber should be dropped");
+        assertTrue(slow.isDropped(), "Lagging subscriber should be marked");
+        assertEquals(List.of(5L), ids(fast.poll(0, TimeUnit.MILLISECONDS)), "Other subscribers should not suffer");
+    }
+
+    @Test
+    void shouldResumeFromLastEventId() throws InterruptedException {
+        publish(10);
+        TaskEventBus.Subscription resumed = bus.subscribe(7, 4);
+        assertFalse(resumed.isReset(), "Kept events should be replayed");
+        assertEquals(List.of(8L, 9L, 10L), ids(resumed.poll(0, TimeUnit.MILLISECONDS)), "Missed events mismatch");
+
+        for (long lastEventId : new long[]{1, 5, 11, -1}) {
+            TaskEventBus.Subscription reset = bus.subscribe(lastEventId, 4);
+            assertTrue(reset.isReset(), "Subscription should be reset for id " + lastEventId);
+            assertEquals(10, reset.getPosition(), "Reset subscription should start from the last event");
+        }
+        assertThrows(IllegalArgumentException.class, () -> bus.subscribe(9), "Lag must not exceed the capacity");
+    }
+
+    @Test
+    void shouldPublishChangesOfTaskManager() throws InterruptedException {
+        TaskManager taskManager = new InMemoryTaskManager();
+        TaskEventBus.Subscription subscription = taskManager.getEventBus().subscribe(64);
+
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        int subtaskId = taskManager.addSubtask(
+                new Subtask("Test subtask", "description", null, Duration.ZERO, epicId));
+        taskManager.removeSubtask(subtaskId);
+
+        List<TaskEvent> events = subscription.poll(0, TimeUnit.MILLISECONDS);
+        assertEquals(List.of(TaskEvent.Kind.CREATED, TaskEvent.Kind.CREATED, TaskEvent.Kind.UPDATED,
+                        TaskEvent.Kind.UPDATED, TaskEvent.Kind.DELETED),
+                events.stream().map(TaskEvent::kind).toList(), "Event kinds mismatch");
+        assertEquals(List.of(subtaskId), ((Epic) events.get(2).item()).getSubtaskIds(),
+                "Epic event should keep the epic state of its time");
+        assertNull(events.getLast().item(), "Deleted item should not be sent");
+        assertEquals(taskManager.getItemVersion(epicId), events.get(3).id(), "Event id should be the item version");
+
+        Task task = new Task("Test task", "description", null, Duration.ZERO);
+        taskManager.addTask(task);
+        assertEquals(task, subscription.poll(0, TimeUnit.MILLISECONDS).getFirst().item(), "Task mismatch");
+    }
+
+    @Test
+    void shouldReturnLastStateOfChangedItems() {
+        TaskManager taskManager = new InMemoryTaskManager();
+        int taskId = taskManager.addTask(new Task("Test task", "description", null, Duration.ZERO));
+        int removedId = taskManager.addTask(new Task("Removed task", "description", null, Duration.ZERO));
+        long version = taskManager.getEventBus().getLastEventId();
+
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        int subtaskId = taskManager.addSubtask(
+                new Subtask("Test subtask", "description", null, Duration.ZERO, epicId));
+        Task updatedTask = new Task(taskId, "Updated task", "description", TaskStatus.DONE, null, Duration.ZERO);
+        taskManager.updateTask(updatedTask);
+        taskManager.removeTask(removedId);
+
+        TaskChanges changes = taskManager.getEventBus().getChangesSince(version);
+        assertFalse(changes.resync(), "Changes should be kept");
+        assertEquals(taskManager.getEventBus().getLastEventId(), changes.version(), "Wrong version");
+        assertEquals(List.of(updatedTask), changes.tasks(), "Only the last state should be returned");
+        assertEquals(List.of(taskManager.getEpic(epicId)), changes.epics(), "Epic mismatch");
+        assertEquals(List.of(subtaskId), changes.epics().getFirst().getSubtaskIds(), "Epic subtasks mismatch");
+        assertEquals(List.of(taskManager.getSubtask(subtaskId)), changes.subtasks(), "Subtask mismatch");
+        assertEquals(List.of(removedId), changes.deleted(), "Deleted item should be returned");
+
+        TaskChanges noChanges = taskManager.getEventBus().getChangesSince(changes.version());
+        assertEquals(changes.version(), noChanges.version(), "Version should be kept");
+        assertTrue(noChanges.tasks().isEmpty() && noChanges.deleted().isEmpty(), "Nothing has been changed");
+    }
+
+    @Test
+    void shouldAskForResyncIfChangesAreNotKept() {
+        publish(10);
+        assertFalse(bus.getChangesSince(2).resync(), "Changes since 2 should be kept");
+        for (long version : new long[]{1, 11, -1}) {
+            TaskChanges changes = bus.getChangesSince(version);
+            assertTrue(changes.resync(), "Resync expected since " + version);
+            assertEquals(10, changes.version(), "Resync should return the last version");
+        }
+    }
+}
@@ -3,10 +3,12 @@ package ru.yandex.practicum.taskmanagerapp.taskmanager;
 import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.taskmanagerapp.exception.*;
 import ru.yandex.practicum.taskmanagerapp.exception.NullItemException;
+import ru.yandex.practicum.taskmanagerapp.stats.HotItem;
 import ru.yandex.practicum.taskmanagerapp.task.Epic;
 import ru.yandex.practicum.taskmanagerapp.task.Subtask;
 import ru.yandex.practicum.taskmanagerapp.task.Task;
 import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+import ru.yandex.practicum.taskmanagerapp.task.TaskType;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -192,6 +194,26 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(subtask, subtasks.getFirst(), "Subtasks are not equal");
     }
 
+    @Test
+    void getEpicSubtasksWithViews() {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "Test epic description"));
+        Subtask subtask1 = new Subtask("Test subtask #1", "Test subtask #1 description",
+                TEST_START_TIME, TEST_DURATION, epicId);
+        Subtask subtask2 = new Subtask("Test subtask #2", "Test subtask #2 description",
+                TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION, epicId);
+        taskManager.addSubtask(subtask1);
+        taskManager.addSubtask(subtask2);
+
+        taskManager.getEpicSubtasks(epicId, false);
+        assertTrue(taskManager.getHistory().isEmpty(), "Views must not be recorded");
+
+        assertEquals(List.of(subtask1, subtask2), taskManager.getEpicSubtasks(epicId, true),
+                "Subtasks are not equal");
+        assertEquals(List.of(subtask1, subtask2), taskManager.getHistory(), "Task history mismatch");
+        assertThrows(NotFoundException.class, () -> taskManager.getEpicSubtasks(-1, true),
+                "Subtasks of unknown epic must not be found");
+    }
+
     @Test
     void clear() {
         taskManager.addTask(new Task("Test task", "Test task description", TEST_START_TIME, TEST_DURATION));
@@ -786,4 +808,314 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(List.of(task1), tasks, "Task list is wrong");
     }
 
+    /// ///////////////////////
+    /// batch tests
+    @Test
+    public void applyBatchWithEpicAndSubtasks() {
+        TaskBatch batch = new TaskBatch();
+        batch.addTask(new Task("Test task", "description", TEST_START_TIME, TEST_DURATION));
+        int epicRef = batch.addEpic(new Epic("Test epic", "description"));
+        for (int i = 1; i <= 3; i++) {
+            batch.addSubtask(new Subtask("Test subtask #" + i, "description",
+                    TEST_START_TIME.plusDays(i), TEST_DURATION, epicRef));
+        }
+
+        List<Integer> ids = taskManager.applyBatch(batch);
+
+        assertEquals(5, ids.size(), "Wrong number of results");
+        assertEquals(1, taskManager.getTaskList().size(), "Wrong number of tasks");
+        Epic epic = taskManager.getEpic(ids.get(1));
+        assertEquals(ids.subList(2, 5), epic.getSubtaskIds(), "Epic subtasks mismatch");
+        assertEquals(TEST_START_TIME.plusDays(1), epic.getStartTime().orElseThrow(), "Epic start time mismatch");
+        assertEquals(TEST_START_TIME.plusDays(4), epic.getEndTime().orElseThrow(), "Epic end time mismatch");
+        assertEquals(4, taskManager.getPrioritizedTasks().size(), "Wrong number of prioritized tasks");
+    }
+
+    @Test
+    public void applyBatchWithUpdatesAndRemovals() {
+        int taskId = taskManager.addTask(new Task("Test task #1", "description", TEST_START_TIME, TEST_DURATION));
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        int subtaskId = taskManager.addSubtask(new Subtask("Test subtask", "description",
+                TEST_START_TIME.plusDays(1), TEST_DURATION, epicId));
+
+        TaskBatch batch = new TaskBatch();
+        batch.removeTask(taskId);
+        batch.addTask(new Task("Test task #2", "description", TEST_START_TIME, TEST_DURATION));
+        batch.updateSubtask(new Subtask(subtaskId, "Test subtask", "description", TaskStatus.DONE,
+                TEST_START_TIME.plusDays(1), TEST_DURATION, epicId));
+        taskManager.applyBatch(batch);
+
+        assertThrows(NotFoundException.class, () -> taskManager.getTask(taskId), "Task should be removed");
+        assertEquals("Test task #2", taskManager.getTaskList().getFirst().getName(), "Task should be added");
+        assertEquals(TaskStatus.DONE, taskManager.getEpic(epicId).getStatus(), "Epic status mismatch");
+    }
+
+    @Test
+    public void shouldNotApplyBatchWithTimeConflictInside() {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        TaskBatch batch = new TaskBatch();
+        batch.addTask(new Task("Test task", "description", TEST_START_TIME, Duration.ofDays(3)));
+        batch.addSubtask(new Subtask("Test subtask #1", "description",
+                TEST_START_TIME.plusDays(5), TEST_DURATION, epicId));
+        batch.addSubtask(new Subtask("Test subtask #2", "description",
+                TEST_START_TIME.plusDays(2), TEST_DURATION, epicId));
+
+        BatchException e = assertThrows(BatchException.class, () -> taskManager.applyBatch(batch),
+                "Should throw exception for time conflict");
+        assertEquals(2, e.getOperationIndex(), "Wrong failed operation");
+        assertInstanceOf(TimeConflictException.class, e.getCause(), "Wrong failure cause");
+        assertTrue(taskManager.getTaskList().isEmpty(), "Task list should be empty");
+        assertTrue(taskManager.getSubtaskList().isEmpty(), "Subtask list should be empty");
+    }
+
+    @Test
+    public void shouldNotApplyBatchWithTimeConflictWithExistingTask() {
+        taskManager.addTask(new Task("Test task #1", "description", TEST_START_TIME, TEST_DURATION));
+        TaskBatch batch = new TaskBatch();
+        batch.addTask(new Task("Test task #2", "description", TEST_START_TIME.plusDays(2), TEST_DURATION));
+        batch.addTask(new Task("Test task #3", "description", TEST_START_TIME.plusHours(12), TEST_DURATION));
+
+        BatchException e = assertThrows(BatchException.class, () -> taskManager.applyBatch(batch),
+                "Should throw exception for time conflict");
+        assertEquals(1, e.getOperationIndex(), "Wrong failed operation");
+        assertEquals(1, taskManager.getTaskList().size(), "Batch should not be applied");
+    }
+
+    @Test
+    public void shouldNotApplyBatchWithNonExistingItem() {
+        TaskBatch batch = new TaskBatch();
+        batch.addTask(new Task("Test task", "description", TEST_START_TIME, TEST_DURATION));
+        batch.removeSubtask(TEST_ID);
+
+        BatchException e = assertThrows(BatchException.class, () -> taskManager.applyBatch(batch),
+                "Should throw exception for nonexisting subtask");
+        assertInstanceOf(NotFoundException.class, e.getCause(), "Wrong failure cause");
+        assertTrue(taskManager.getTaskList().isEmpty(), "Task list should be empty");
+    }
+
+    @Test
+    public void applyEachSkipsFailedOperations() {
+        int taskId = taskManager.addTask(new Task("Test task #1", "description", TEST_START_TIME, TEST_DURATION));
+
+        TaskBatch batch = new TaskBatch();
+        batch.addTask(new Task("Test task #2", "description", TEST_START_TIME, TEST_DURATION));
+        int failedEpicRef = batch.addEpic(null);
+        batch.addSubtask(new Subtask("Test subtask #1", "description", null, TEST_DURATION, failedEpicRef));
+        int epicRef = batch.addEpic(new Epic("Test epic", "description"));
+        batch.addSubtask(new Subtask("Test subtask #2", "description", null, TEST_DURATION, epicRef));
+        batch.removeTask(taskId);
+        List<TaskBatch.Result> results = taskManager.applyEach(batch);
+
+        assertEquals(6, results.size(), "Wrong number of results");
+        assertInstanceOf(TimeConflictException.class, results.get(0).error(), "Conflicting task must fail");
+        assertInstanceOf(NullItemException.class, results.get(1).error(), "Null epic must fail");
+        assertInstanceOf(InconsistentDataException.class, results.get(2).error(), "Subtask of failed epic must fail");
+        assertTrue(results.subList(3, 6).stream().allMatch(TaskBatch.Result::isSuccess), "Operations must succeed");
+        assertEquals(List.of(results.get(4).id()), taskManager.getEpic(results.get(3).id()).getSubtaskIds(),
+                "Epic subtasks mismatch");
+        assertTrue(taskManager.getTaskList().isEmpty(), "Task should be removed");
+    }
+
+    /// ///////////////////////
+    /// view statistics tests
+    @Test
+    public void getHotItems() {
+        int taskId = taskManager.addTask(new Task("Test task", "description", TEST_START_TIME, TEST_DURATION));
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        int removedTaskId = taskManager.addTask(new Task("Test task", "description", null, TEST_DURATION));
+        for (int i = 0; i < 3; i++) {
+            taskManager.getEpic(epicId);
+            taskManager.getTask(removedTaskId);
+        }
+        taskManager.getTask(taskId);
+        taskManager.removeTask(removedTaskId);
+
+        assertEquals(List.of(epicId, taskId), taskManager.getHotItems().stream().map(HotItem::id).toList(),
+                "Hot items mismatch");
+    }
+
+    @Test
+    public void clearForgetsHotItems() {
+        int taskId = taskManager.addTask(new Task("Test task", "description", TEST_START_TIME, TEST_DURATION));
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        taskManager.getTask(taskId);
+        taskManager.getEpic(epicId);
+        taskManager.clearTasks();
+        assertEquals(List.of(epicId), taskManager.getHotItems().stream().map(HotItem::id).toList(),
+                "Hot items mismatch");
+
+        taskManager.clear();
+        int newTaskId = taskManager.addTask(new Task("New task", "description", TEST_START_TIME, TEST_DURATION));
+        taskManager.getTask(newTaskId);
+        assertEquals(List.of(new HotItem(newTaskId, 1)), taskManager.getHotItems(),
+                "Views before clear should not be counted");
+    }
+
+    /// ///////////////////////
+    /// version tests
+    @Test
+    public void versionsGrowOnChanges() {
+        long initialTaskVersion = taskManager.getVersion(TaskType.TASK);
+        int taskId = taskManager.addTask(new Task("Test task", "description", TEST_START_TIME, TEST_DURATION));
+        long taskVersion = taskManager.getItemVersion(taskId);
+        assertTrue(taskManager.getVersion(TaskType.TASK) > initialTaskVersion, "Task list version must grow");
+        assertEquals(taskVersion, taskManager.getVersion(TaskType.TASK), "Task list version mismatch");
+
+        taskManager.getTask(taskId);
+        assertEquals(taskVersion, taskManager.getItemVersion(taskId), "Reading must not change version");
+
+        Task updatedTask = new Task(taskId, "Updated task", "description", TaskStatus.IN_PROGRESS,
+                TEST_START_TIME, TEST_DURATION);
+        taskManager.updateTask(updatedTask);
+        assertTrue(taskManager.getItemVersion(taskId) > taskVersion, "Task version must grow");
+
+        long listVersion = taskManager.getVersion(TaskType.TASK);
+        taskManager.removeTask(taskId);
+        assertTrue(taskManager.getVersion(TaskType.TASK) > listVersion, "Task list version must grow");
+        assertThrows(NotFoundException.class, () -> taskManager.getItemVersion(taskId),
+                "Removed item must have no version");
+    }
+
+    @Test
+    public void subtaskChangeChangesEpicVersion() {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        long epicVersion = taskManager.getItemVersion(epicId);
+        long epicListVersion = taskManager.getVersion(TaskType.EPIC);
+        long taskListVersion = taskManager.getVersion(TaskType.TASK);
+
+        int subtaskId = taskManager.addSubtask(new Subtask("Test subtask", "description", null, TEST_DURATION,
+                epicId));
+        assertTrue(taskManager.getItemVersion(epicId) > epicVersion, "Epic version must grow");
+        assertTrue(taskManager.getVersion(TaskType.EPIC) > epicListVersion, "Epic list version must grow");
+        assertEquals(taskManager.getItemVersion(subtaskId), taskManager.getVersion(TaskType.SUBTASK),
+                "Subtask list version mismatch");
+        assertEquals(taskListVersion, taskManager.getVersion(TaskType.TASK), "Task list version must be kept");
+
+        epicVersion = taskManager.getItemVersion(epicId);
+        taskManager.clearSubtasks();
+        assertTrue(taskManager.getItemVersion(epicId) > epicVersion, "Epic version must grow");
+        assertThrows(NotFoundException.class, () -> taskManager.getItemVersion(subtaskId),
+                "Removed item must have no version");
+    }
+
+    @Test
+    public void conditionalUpdateRequiresCurrentVersion() {
+        int taskId = taskManager.addTask(new Task("Test task", "description", TEST_START_TIME, TEST_DURATION));
+        long version = taskManager.getItemVersion(taskId);
+        Task firstUpdate = new Task(taskId, "First update", "description", TaskStatus.IN_PROGRESS,
+                TEST_START_TIME, TEST_DURATION);
+        Task secondUpdate = new Task(taskId, "Second update", "description", TaskStatus.DONE,
+                TEST_START_TIME, TEST_DURATION);
+
+        long newVersion = taskManager.updateTask(firstUpdate, version);
+        assertEquals(taskManager.getItemVersion(taskId), newVersion, "New version must be returned");
+        assertThrows(VersionConflictException.class, () -> taskManager.updateTask(secondUpdate, version),
+                "Update of a stale version must be rejected");
+        assertEquals(firstUpdate, taskManager.getTask(taskId), "First update must be kept");
+        assertThrows(VersionConflictException.class, () -> taskManager.removeTask(taskId, version),
+                "Removal of a stale version must be rejected");
+
+        taskManager.removeTask(taskId, newVersion);
+        assertTrue(taskManager.getTaskList().isEmpty(), "Task must be removed");
+        assertThrows(NotFoundException.class, () -> taskManager.updateTask(secondUpdate, newVersion),
+                "Removed task must not be updated");
+    }
+
+    @Test
+    public void conditionalEpicUpdateFollowsSubtaskChanges() {
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        long epicVersion = taskManager.getItemVersion(epicId);
+        int subtaskId = taskManager.addSubtask(new Subtask("Test subtask", "description", null, TEST_DURATION,
+                epicId));
+        long subtaskVersion = taskManager.getItemVersion(subtaskId);
+
+        Epic staleEpic = new Epic(epicId, "Renamed epic", "description", TaskStatus.NEW, null, Duration.ZERO,
+                null, List.of());
+        assertThrows(VersionConflictException.class, () -> taskManager.updateEpic(staleEpic, epicVersion),
+                "Epic changed by its subtask must not be updated with a stale version");
+        assertEquals(List.of(subtaskId), taskManager.getEpic(epicId).getSubtaskIds(), "Subtasks must be kept");
+
+        Subtask updatedSubtask = new Subtask(subtaskId, "Updated subtask", "description", TaskStatus.DONE,
+                null, TEST_DURATION, epicId);
+        assertTrue(taskManager.updateSubtask(updatedSubtask, subtaskVersion) > subtaskVersion,
+                "Subtask version must grow");
+        Epic epic = taskManager.getEpic(epicId);
+        Epic renamedEpic = new Epic(epicId, "Renamed epic", "description", epic.getStatus(), null, Duration.ZERO,
+                null, epic.getSubtaskIds());
+        long newEpicVersion = taskManager.updateEpic(renamedEpic, taskManager.getItemVersion(epicId));
+        assertEquals(TaskStatus.DONE, taskManager.getEpic(epicId).getStatus(), "Epic status must be recalculated");
+        assertThrows(VersionConflictException.class, () -> taskManager.removeSubtask(subtaskId, subtaskVersion),
+                "Removal of a stale version must be rejected");
+        taskManager.removeEpic(epicId, newEpicVersion);
+        assertTrue(taskManager.getSubtaskList().isEmpty(), "Subtasks must be removed with their epic");
+    }
+
+    /// ///////////////////////
+    /// paged query tests
+    @Test
+    public void getTasksByPages() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(taskManager.addTask(new Task("Test task #" + i, "description",
+                    TEST_START_TIME.plusDays(i), TEST_DURATION)));
+        }
+
+        List<Integer> pagedIds = new ArrayList<>();
+        int afterId = NULL_ID;
+        int pageCount = 0;
+        do {
+            Page<Task> page = taskManager.getTasks(TaskQuery.ALL, afterId, 3);
+            assertTrue(page.items().size() <= 3, "Page is too long");
+            page.items().forEach(task -> pagedIds.add(task.getId()));
+            afterId = page.nextAfterId();
+            pageCount++;
+        } while (afterId != NULL_ID);
+
+        assertEquals(ids.stream().sorted().toList(), pagedIds, "Paged tasks mismatch");
+        assertEquals(3, pageCount, "Page count mismatch");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasks(TaskQuery.ALL, NULL_ID, 0),
+                "Page size must be positive");
+    }
+
+    @Test
+    public void getTasksByQuery() {
+        int taskId1 = taskManager.addTask(new Task("Test task #1", "description", TEST_START_TIME, TEST_DURATION));
+        Task task2 = new Task("Test task #2", "description", TEST_START_TIME.plus(TEST_DURATION), TEST_DURATION);
+        int taskId2 = taskManager.addTask(task2);
+        taskManager.addTask(new Task("Test task #3", "description", null, TEST_DURATION));
+        taskManager.updateTask(new Task(taskId2, "Test task #2", "description", TaskStatus.DONE,
+                task2.getStartTime().get(), TEST_DURATION));
+
+        assertEquals(List.of(taskId2), taskManager.getTasks(new TaskQuery(TaskStatus.DONE, null, null, null),
+                NULL_ID, 10).items().stream().map(Task::getId).toList(), "Status filter mismatch");
+        assertEquals(List.of(taskId1), taskManager.getTasks(new TaskQuery(null, null, null,
+                        TEST_START_TIME.plus(TEST_DURATION)), NULL_ID, 10).items().stream().map(Task::getId).toList(),
+                "Time window filter mismatch");
+        assertEquals(List.of(taskId1, taskId2), taskManager.getTasks(new TaskQuery(null, null,
+                        TEST_START_TIME.plusMinutes(1), null), NULL_ID, 10).items().stream().map(Task::getId).toList(),
+                "Time window filter mismatch");
+    }
+
+    @Test
+    public void getSubtasksOfEpicByPages() {
+        int epicId1 = taskManager.addEpic(new Epic("Test epic #1", "description"));
+        int epicId2 = taskManager.addEpic(new Epic("Test epic #2", "description"));
+        List<Integer> subtaskIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            subtaskIds.add(taskManager.addSubtask(new Subtask("Test subtask", "description", null, TEST_DURATION,
+                    epicId1)));
+            taskManager.addSubtask(new Subtask("Test subtask", "description", null, TEST_DURATION, epicId2));
+        }
+        TaskQuery query = new TaskQuery(null, epicId1, null, null);
+
+        Page<Subtask> page = taskManager.getSubtasks(query, NULL_ID, 3);
+        assertEquals(subtaskIds.subList(0, 3), page.items().stream().map(Task::getId).toList(), "Page mismatch");
+        assertTrue(page.hasNext(), "Page must not be the last one");
+        page = taskManager.getSubtasks(query, page.nextAfterId(), 3);
+        assertEquals(subtaskIds.subList(3, 4), page.items().stream().map(Task::getId).toList(), "Page mismatch");
+        assertFalse(page.hasNext(), "Page must be the last one");
+
+        assertTrue(taskManager.getEpics(new TaskQuery(TaskStatus.DONE, null, null, null), NULL_ID, 10)
+                .items().isEmpty(), "No epic is done");
+    }
 }
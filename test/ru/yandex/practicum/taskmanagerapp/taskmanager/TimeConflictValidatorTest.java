@@ -0,0 +1,76 @@
+package ru.yandex.practicum.taskmanagerapp.taskmanager;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.taskmanagerapp.task.Epic;
+import ru.yandex.practicum.taskmanagerapp.task.Subtask;
+import ru.yandex.practicum.taskmanagerapp.task.Task;
+import ru.yandex.practicum.taskmanagerapp.task.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeConflictValidatorTest {
+    private static final LocalDateTime TEST_START_TIME = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static Task task(int id, int startHour, int hours) {
+        return new Task(id, "Test task #" + id, "description", TaskStatus.NEW,
+                TEST_START_TIME.plusHours(startHour), Duration.ofHours(hours));
+    }
+
+    private static Set<String> pairs(List<TimeConflictValidator.TimeConflict> conflicts) {
+        return conflicts.stream()
+                .map(c -> Math.min(c.first().getId(), c.second().getId()) + "-"
+                        + Math.max(c.first().getId(), c.second().getId()))
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void shouldNotFindConflictsForSequentialTasks() {
+        List<Task> tasks = List.of(task(1, 0, 2), task(2, 2, 2), task(3, 4, 2),
+                new Task(4, "Test task #4", "description", TaskStatus.NEW, null, Duration.ZERO));
+        assertTrue(TimeConflictValidator.findConflicts(tasks).isEmpty(), "Tasks should not conflict");
+    }
+
+    @Test
+    public void shouldFindEveryOverlappingPair() {
+        List<Task> tasks = List.of(task(1, 0, 10), task(2, 1, 2), task(3, 2, 2), task(4, 10, 1), task(5, 10, 0));
+        assertEquals(Set.of("1-2", "1-3", "2-3", "4-5"), pairs(TimeConflictValidator.findConflicts(tasks)),
+                "Conflict pairs mismatch");
+    }
+
+    @Test
+    public void shouldMatchPairwiseCheck() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tasks.add(task(i, (i * 37) % 150, 1 + (i * 13) % 5));
+        }
+        List<TimeConflictValidator.TimeConflict> expected = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            for (int j = i + 1; j < tasks.size(); j++) {
+                if (TaskSchedule.isTimeConflict(tasks.get(i), tasks.get(j))) {
+                    expected.add(new TimeConflictValidator.TimeConflict(tasks.get(i), tasks.get(j)));
+                }
+            }
+        }
+
+        List<TimeConflictValidator.TimeConflict> conflicts = TimeConflictValidator.findConflicts(tasks);
+        assertEquals(expected.size(), conflicts.size(), "Wrong number of conflicts");
+        assertEquals(pairs(expected), pairs(conflicts), "Conflict pairs mismatch");
+    }
+
+    @Test
+    public void shouldReportNoConflictsForTaskManager() {
+        TaskManager taskManager = new InMemoryTaskManager();
+        taskManager.addTask(task(0, 0, 2));
+        int epicId = taskManager.addEpic(new Epic("Test epic", "description"));
+        taskManager.addSubtask(new Subtask("Test subtask", "description", TEST_START_TIME.plusHours(2),
+                Duration.ofHours(1), epicId));
+        assertTrue(TimeConflictValidator.findConflicts(taskManager).isEmpty(), "Task manager data is inconsistent");
+    }
+}